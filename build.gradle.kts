@@ -10,6 +10,7 @@ plugins {
     id("com.github.ben-manes.versions") version "0.54.0"
     id("com.github.gradle-git-version-calculator") version "1.1.0"
     id("io.freefair.lombok") version "9.5.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "io.github.1c-syntax"
@@ -22,10 +23,11 @@ repositories {
 }
 
 val sonarQubeVersion = "25.4.0.105899"
+val sonarPluginApiVersion = "11.3.0.2824"
 val commonmarkVersion = "0.27.1"
 
 dependencies {
-    compileOnly("org.sonarsource.api.plugin", "sonar-plugin-api", "11.3.0.2824")
+    compileOnly("org.sonarsource.api.plugin", "sonar-plugin-api", sonarPluginApiVersion)
 
     implementation("io.github.1c-syntax", "bsl-language-server", "0.29.0") {
         exclude("com.contrastsecurity", "java-sarif")
@@ -55,6 +57,15 @@ dependencies {
 
     testRuntimeOnly("org.junit.jupiter", "junit-jupiter-engine", "6.0.3")
     testRuntimeOnly("org.junit.platform", "junit-platform-launcher", "6.0.3")
+
+    // benchmarks of sensor hot paths, see src/jmh
+    jmhImplementation("org.sonarsource.api.plugin", "sonar-plugin-api", sonarPluginApiVersion)
+    jmhImplementation("org.sonarsource.sonarqube", "sonar-testing-harness", sonarQubeVersion) {
+        exclude("org.sonarsource.sonarqube", "sonar-sarif")
+    }
+    jmhImplementation("org.sonarsource.sonarqube", "sonar-core", sonarQubeVersion) {
+        exclude("org.sonarsource.sonarqube", "sonar-sarif")
+    }
 }
 
 java {
@@ -83,6 +94,12 @@ tasks.check {
     dependsOn(tasks.jacocoTestReport)
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
 tasks.jacocoTestReport {
     reports {
         xml.required.set(true)
@@ -123,6 +140,7 @@ tasks.jar {
         attributes["Plugin-Class"] = "com.github._1c_syntax.bsl.sonar.BSLPlugin"
         attributes["Plugin-Name"] = "1C (BSL) Community Plugin"
         attributes["Plugin-Version"] = "${project.version}"
+        attributes["Implementation-Version"] = "${project.version}"
         attributes["Plugin-RequiredForLanguages"] = "bsl"
 
         attributes["Plugin-License"] = "GNU LGPL v3"
@@ -0,0 +1,78 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import com.github._1c_syntax.bsl.languageserver.context.DocumentContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BSLHighlighterBenchmark {
+
+  @Param({"highlightLongQuery.bsl", "CRM_КлиентыСервер.bsl"})
+  public String fileName;
+
+  private InputFile inputFile;
+  private DocumentContext documentContext;
+  private int[] highlighting;
+  private BSLHighlighter highlighter;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    inputFile = BenchmarkFixtures.inputFile(fileName);
+    documentContext = BenchmarkFixtures.documentContext(fileName);
+    highlighting = new BSLHighlighter(BenchmarkFixtures.sensorContext()).encodeHighlighting(documentContext);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    highlighter = new BSLHighlighter(BenchmarkFixtures.sensorContext());
+  }
+
+  @Benchmark
+  public int[] encodeHighlighting() {
+    return highlighter.encodeHighlighting(documentContext);
+  }
+
+  @Benchmark
+  public void saveHighlighting() {
+    highlighter.saveHighlighting(inputFile, highlighting);
+  }
+}
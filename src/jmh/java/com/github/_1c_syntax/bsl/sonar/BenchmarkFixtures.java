@@ -0,0 +1,148 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import com.github._1c_syntax.bsl.languageserver.BSLLSBinding;
+import com.github._1c_syntax.bsl.languageserver.context.DocumentContext;
+import com.github._1c_syntax.bsl.parser.BSLTokenizer;
+import com.github._1c_syntax.bsl.sonar.language.BSLLanguage;
+import com.github._1c_syntax.bsl.sonar.language.BSLLanguageServerRuleDefinition;
+import lombok.experimental.UtilityClass;
+import org.antlr.v4.runtime.Token;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.rule.internal.NewActiveRule;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.rule.RuleKey;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Общие данные бенчмарков: файлы примеров из тестовых ресурсов и контексты сенсора в памяти
+ */
+@UtilityClass
+public class BenchmarkFixtures {
+
+  public static final Path EXAMPLES_DIR = Path.of("src/test/resources/examples").toAbsolutePath();
+
+  /**
+   * Правила, по которым создаются синтетические замечания
+   */
+  public static final List<String> RULES = List.of(
+    "LineLength",
+    "MagicNumber",
+    "CanonicalSpellingKeywords",
+    "UsingHardcodeNetworkAddress"
+  );
+
+  private static final int TOKENS_PER_DIAGNOSTIC = 10;
+
+  public static String content(String fileName) {
+    try {
+      return Files.readString(EXAMPLES_DIR.resolve(fileName), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static InputFile inputFile(String fileName) {
+    var content = content(fileName);
+    return TestInputFileBuilder.create("moduleKey", fileName)
+      .setModuleBaseDir(EXAMPLES_DIR)
+      .setType(InputFile.Type.MAIN)
+      .setLanguage(BSLLanguage.KEY)
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(content)
+      .initMetadata(content)
+      .build();
+  }
+
+  /**
+   * Новый контекст сенсора с активными правилами {@link #RULES}.
+   * SensorContextTester запрещает повторное сохранение подсветки и токенов CPD одного файла,
+   * поэтому бенчмарки сохранения создают контекст перед каждым вызовом.
+   */
+  public static SensorContextTester sensorContext() {
+    var context = SensorContextTester.create(EXAMPLES_DIR);
+    context.fileSystem().setEncoding(StandardCharsets.UTF_8);
+
+    var activeRules = new ActiveRulesBuilder();
+    RULES.forEach(rule -> activeRules.addRule(new NewActiveRule.Builder()
+      .setRuleKey(RuleKey.of(BSLLanguageServerRuleDefinition.REPOSITORY_KEY, rule))
+      .setName(rule)
+      .build()));
+    context.setActiveRules(activeRules.build());
+
+    return context;
+  }
+
+  public static DocumentContext documentContext(String fileName) {
+    var serverContext = BSLLSBinding.getServerContext();
+    var documentContext = serverContext.addDocument(EXAMPLES_DIR.resolve(fileName).toUri());
+    serverContext.rebuildDocument(documentContext);
+    return documentContext;
+  }
+
+  public static List<Token> tokens(String fileName) {
+    return new BSLTokenizer(content(fileName)).getTokens();
+  }
+
+  /**
+   * Синтетические замечания на каждый десятый однострочный токен файла
+   */
+  public static List<Diagnostic> diagnostics(String fileName) {
+    var tokens = tokens(fileName);
+    List<Diagnostic> diagnostics = new ArrayList<>();
+    for (var i = 0; i < tokens.size(); i += TOKENS_PER_DIAGNOSTIC) {
+      var token = tokens.get(i);
+      var text = token.getText();
+      if (token.getType() == Token.EOF || text.contains("\n")) {
+        continue;
+      }
+
+      var line = token.getLine() - 1;
+      var range = new Range(
+        new Position(line, token.getCharPositionInLine()),
+        new Position(line, token.getCharPositionInLine() + text.length())
+      );
+      diagnostics.add(new Diagnostic(
+        range,
+        "Benchmark issue",
+        DiagnosticSeverity.Warning,
+        "bsl-language-server",
+        RULES.get(diagnostics.size() % RULES.size())
+      ));
+    }
+    return diagnostics;
+  }
+}
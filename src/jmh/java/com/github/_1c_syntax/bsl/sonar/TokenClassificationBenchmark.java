@@ -0,0 +1,103 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import com.github._1c_syntax.bsl.parser.BSLLexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость классификации одного токена: таблица по типу токена против цепочки проверок
+ * {@code Set<Integer>.contains}, которой классификация выполнялась раньше.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(TokenClassificationBenchmark.TOKENS_COUNT)
+public class TokenClassificationBenchmark {
+
+  static final int TOKENS_COUNT = 100_000;
+
+  private final int[] tokenTypes = new int[TOKENS_COUNT];
+  private final List<Map.Entry<Set<Integer>, TypeOfText>> setsChain = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    var tokens = BenchmarkFixtures.tokens("CRM_КлиентыСервер.bsl");
+    for (var i = 0; i < TOKENS_COUNT; i++) {
+      tokenTypes[i] = tokens.get(i % tokens.size()).getType();
+    }
+
+    Map<TypeOfText, Set<Integer>> sets = new LinkedHashMap<>();
+    for (var tokenType = 0; tokenType <= BSLLexer.VOCABULARY.getMaxTokenType(); tokenType++) {
+      var typeOfText = BSLHighlighter.getTypeOfTextBSL(tokenType);
+      if (typeOfText != null) {
+        sets.computeIfAbsent(typeOfText, key -> new HashSet<>()).add(tokenType);
+      }
+    }
+    sets.forEach((typeOfText, types) -> setsChain.add(Map.entry(Set.copyOf(types), typeOfText)));
+  }
+
+  @Benchmark
+  public void lookupTable(Blackhole blackhole) {
+    for (var tokenType : tokenTypes) {
+      blackhole.consume(BSLHighlighter.getTypeOfTextBSL(tokenType));
+    }
+  }
+
+  @Benchmark
+  public void setsChain(Blackhole blackhole) {
+    for (var tokenType : tokenTypes) {
+      TypeOfText result = null;
+      for (var entry : setsChain) {
+        if (entry.getKey().contains(tokenType)) {
+          result = entry.getValue();
+          break;
+        }
+      }
+      blackhole.consume(result);
+    }
+  }
+}
@@ -23,6 +23,7 @@ package com.github._1c_syntax.bsl.sonar;
 
 import com.github._1c_syntax.bsl.languageserver.configuration.Language;
 import com.github._1c_syntax.bsl.languageserver.configuration.diagnostics.SkipSupport;
+import com.github._1c_syntax.bsl.sonar.analysis.WorkOrdering;
 import lombok.experimental.UtilityClass;
 import org.sonar.api.PropertyType;
 import org.sonar.api.config.PropertyDefinition;
@@ -41,11 +42,23 @@ public class BSLCommunityProperties {
   public static final String LANG_SERVER_CONFIGURATION_PATH_KEY = "sonar.bsl.languageserver.configurationPath";
   public static final String LANG_SERVER_OVERRIDE_CONFIGURATION_KEY = "sonar.bsl.languageserver.overrideConfiguration";
   public static final String LANG_SERVER_REPORT_PATH_KEY = "sonar.bsl.languageserver.reportPaths";
+  public static final String LANG_SERVER_REPORT_THREADS_KEY = "sonar.bsl.languageserver.reportThreads";
   public static final String LANG_SERVER_SUBSYSTEM_FILTER_INCLUDE_KEY
     = "sonar.bsl.languageserver.subsystemsFilter.include";
   public static final String LANG_SERVER_SUBSYSTEM_FILTER_EXCLUDE_KEY
     = "sonar.bsl.languageserver.subsystemsFilter.exclude";
   public static final String BSL_FILE_EXTENSIONS_KEY = "sonar.bsl.file.suffixes";
+  public static final String INCREMENTAL_ANALYSIS_ENABLED_KEY = "sonar.bsl.analysis.incremental";
+  public static final String LOCAL_CACHE_PATH_KEY = "sonar.bsl.cache.path";
+  public static final String ANALYSIS_THREADS_KEY = "sonar.bsl.analysis.threads";
+  public static final String ANALYSIS_HEAP_BUDGET_KEY = "sonar.bsl.analysis.heapBudget";
+  public static final String ANALYSIS_ORDERING_KEY = "sonar.bsl.analysis.ordering";
+  public static final String SOURCE_DIRS_CONCURRENCY_KEY = "sonar.bsl.analysis.sourceDirsConcurrency";
+  public static final String ANALYSIS_STATISTICS_REPORT_KEY = "sonar.bsl.analysis.statisticsReport";
+  public static final String PROFILE_DIAGNOSTICS_KEY = "sonar.bsl.analysis.profileDiagnostics";
+  public static final String HIGHLIGHTING_MAX_LINES_KEY = "sonar.bsl.highlighting.maxLines";
+  public static final String HIGHLIGHTING_MAX_SIZE_KEY = "sonar.bsl.highlighting.maxSize";
+  public static final String HIGHLIGHTING_EXCLUSIONS_KEY = "sonar.bsl.highlighting.exclusions";
 
   public static final Boolean LANG_SERVER_ENABLED_DEFAULT_VALUE = Boolean.TRUE;
   public static final String LANG_SERVER_DIAGNOSTIC_LANGUAGE_DEFAULT_VALUE = Language.RU.getLanguageCode();
@@ -55,6 +68,17 @@ public class BSLCommunityProperties {
   public static final String LANG_SERVER_CONFIGURATION_PATH_DEFAULT_VALUE = ".bsl-language-server.json";
   public static final Boolean LANG_SERVER_OVERRIDE_CONFIGURATION_DEFAULT_VALUE = Boolean.FALSE;
   public static final String BSL_FILE_EXTENSIONS_DEFAULT_VALUE = ".bsl,.os";
+  public static final Boolean INCREMENTAL_ANALYSIS_ENABLED_DEFAULT_VALUE = Boolean.FALSE;
+  public static final Integer ANALYSIS_THREADS_DEFAULT_VALUE = 0;
+  public static final Integer ANALYSIS_HEAP_BUDGET_DEFAULT_VALUE = 0;
+  public static final Integer SOURCE_DIRS_CONCURRENCY_DEFAULT_VALUE = 1;
+  public static final Boolean ANALYSIS_STATISTICS_REPORT_DEFAULT_VALUE = Boolean.FALSE;
+  public static final Boolean PROFILE_DIAGNOSTICS_DEFAULT_VALUE = Boolean.FALSE;
+  public static final Integer HIGHLIGHTING_MAX_LINES_DEFAULT_VALUE = 0;
+  public static final Integer HIGHLIGHTING_MAX_SIZE_DEFAULT_VALUE = 0;
+  public static final Integer LANG_SERVER_REPORT_THREADS_DEFAULT_VALUE = 1;
+  public static final String ANALYSIS_ORDERING_DEFAULT_VALUE
+    = WorkOrdering.DEFAULT.name().toLowerCase(Locale.ENGLISH).replace("_", " ");
 
   public static final String BSL_CATEGORY = "1C (BSL)";
 
@@ -123,6 +147,87 @@ public class BSLCommunityProperties {
         .multiValues(true)
         .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
         .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(8,
+          INCREMENTAL_ANALYSIS_ENABLED_KEY,
+          "analysis.incremental",
+          INCREMENTAL_ANALYSIS_ENABLED_DEFAULT_VALUE.toString())
+        .type(PropertyType.BOOLEAN)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(9,
+          LOCAL_CACHE_PATH_KEY,
+          "cache.path",
+          "")
+        .type(PropertyType.STRING)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(10,
+          ANALYSIS_THREADS_KEY,
+          "analysis.threads",
+          ANALYSIS_THREADS_DEFAULT_VALUE.toString())
+        .type(PropertyType.INTEGER)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(11,
+          ANALYSIS_HEAP_BUDGET_KEY,
+          "analysis.heapBudget",
+          ANALYSIS_HEAP_BUDGET_DEFAULT_VALUE.toString())
+        .type(PropertyType.INTEGER)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(12,
+          ANALYSIS_ORDERING_KEY,
+          "analysis.ordering",
+          ANALYSIS_ORDERING_DEFAULT_VALUE)
+        .type(PropertyType.SINGLE_SELECT_LIST)
+        .options(Stream.of(WorkOrdering.values())
+          .map(value -> value.name().toLowerCase(Locale.ENGLISH).replace("_", " "))
+          .toList()
+        )
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(13,
+          SOURCE_DIRS_CONCURRENCY_KEY,
+          "analysis.sourceDirsConcurrency",
+          SOURCE_DIRS_CONCURRENCY_DEFAULT_VALUE.toString())
+        .type(PropertyType.INTEGER)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(14,
+          ANALYSIS_STATISTICS_REPORT_KEY,
+          "analysis.statisticsReport",
+          ANALYSIS_STATISTICS_REPORT_DEFAULT_VALUE.toString())
+        .type(PropertyType.BOOLEAN)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(15,
+          PROFILE_DIAGNOSTICS_KEY,
+          "analysis.profileDiagnostics",
+          PROFILE_DIAGNOSTICS_DEFAULT_VALUE.toString())
+        .type(PropertyType.BOOLEAN)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(16,
+          HIGHLIGHTING_MAX_LINES_KEY,
+          "highlighting.maxLines",
+          HIGHLIGHTING_MAX_LINES_DEFAULT_VALUE.toString())
+        .type(PropertyType.INTEGER)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(17,
+          HIGHLIGHTING_MAX_SIZE_KEY,
+          "highlighting.maxSize",
+          HIGHLIGHTING_MAX_SIZE_DEFAULT_VALUE.toString())
+        .type(PropertyType.INTEGER)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderBSL(18,
+          HIGHLIGHTING_EXCLUSIONS_KEY,
+          "highlighting.exclusions",
+          "")
+        .multiValues(true)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
       PropertyDefinitionUtils.newPropertyBuilderExternal(0,
           LANG_SERVER_REPORT_PATH_KEY,
           "reportPaths",
@@ -130,6 +235,14 @@ public class BSLCommunityProperties {
         .subCategory(BSL_SUBCATEGORY)
         .multiValues(true)
         .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
+        .build(),
+      PropertyDefinitionUtils.newPropertyBuilderExternal(1,
+          LANG_SERVER_REPORT_THREADS_KEY,
+          "reportThreads",
+          LANG_SERVER_REPORT_THREADS_DEFAULT_VALUE.toString())
+        .subCategory(BSL_SUBCATEGORY)
+        .type(PropertyType.INTEGER)
+        .onlyOnConfigScopes(PropertyDefinition.ConfigScope.PROJECT)
         .build()
     );
   }
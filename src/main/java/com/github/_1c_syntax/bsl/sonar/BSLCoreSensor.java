@@ -30,6 +30,23 @@ import com.github._1c_syntax.bsl.languageserver.context.ServerContext;
 import com.github._1c_syntax.bsl.languageserver.diagnostics.metadata.DiagnosticCode;
 import com.github._1c_syntax.bsl.languageserver.diagnostics.metadata.DiagnosticInfo;
 import com.github._1c_syntax.bsl.parser.BSLLexer;
+import com.github._1c_syntax.bsl.parser.BSLTokenizer;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult.Measures;
+import com.github._1c_syntax.bsl.sonar.analysis.AdmissionController;
+import com.github._1c_syntax.bsl.sonar.analysis.AnalysisExecutor;
+import com.github._1c_syntax.bsl.sonar.analysis.DiagnosticProfiler;
+import com.github._1c_syntax.bsl.sonar.analysis.HighlightingPolicy;
+import com.github._1c_syntax.bsl.sonar.analysis.PhaseStatistics;
+import com.github._1c_syntax.bsl.sonar.analysis.PhaseStatistics.Phase;
+import com.github._1c_syntax.bsl.sonar.analysis.WriterStage;
+import com.github._1c_syntax.bsl.sonar.analysis.ServerContextPool;
+import com.github._1c_syntax.bsl.sonar.analysis.WorkOrdering;
+import com.github._1c_syntax.bsl.sonar.cache.AnalysisCache;
+import com.github._1c_syntax.bsl.sonar.cache.AnalysisFingerprint;
+import com.github._1c_syntax.bsl.sonar.cache.CompositeAnalysisCache;
+import com.github._1c_syntax.bsl.sonar.cache.ContentHashes;
+import com.github._1c_syntax.bsl.sonar.cache.LocalAnalysisCache;
+import com.github._1c_syntax.bsl.sonar.cache.SensorAnalysisCache;
 import com.github._1c_syntax.bsl.sonar.language.BSLLanguage;
 import com.github._1c_syntax.bsl.sonar.language.BSLLanguageServerRuleDefinition;
 import com.github._1c_syntax.utils.Absolute;
@@ -47,35 +64,64 @@ import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.rule.RuleKey;
+import org.springframework.context.ConfigurableApplicationContext;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 @Slf4j
 public class BSLCoreSensor implements Sensor {
   private static final int COUNT_FILES_PB = 100;
+  private static final String STATISTICS_REPORT_FILE_NAME = "bsl-analysis-statistics.json";
+  private static final String DIAGNOSTICS_PROFILE_FILE_NAME = "bsl-diagnostics-profile.json";
+  private static final int CPD_WRITE_QUEUE_CAPACITY = 256;
+  private static final int RESULT_WRITE_QUEUE_CAPACITY_PER_THREAD = 4;
+  private static final String POPULATE_CONTEXT_THREAD_NAME_PREFIX = "bsl-populate-context-";
+  private static final String SOURCE_DIR_THREAD_NAME_PREFIX = "bsl-source-dir-";
   private final SensorContext context;
   private final FileLinesContextFactory fileLinesContextFactory;
 
   private final boolean langServerEnabled;
+  private final boolean incrementalAnalysisEnabled;
+  private final int analysisThreads;
+  private final AdmissionController admissionController;
+  private final WorkOrdering workOrdering;
+  private final int sourceDirsConcurrency;
+  private final boolean statisticsReportEnabled;
+  private final PhaseStatistics phaseStatistics = new PhaseStatistics();
+  private final boolean profileDiagnostics;
+  private final DiagnosticProfiler diagnosticProfiler = new DiagnosticProfiler();
+  private final HighlightingPolicy highlightingPolicy;
+  private final WriterStage cpdWriter = new WriterStage("bsl-cpd-writer-", 1, CPD_WRITE_QUEUE_CAPACITY);
+  private final WriterStage resultWriter;
+  private final Map<String, Long> fileDurations = new ConcurrentHashMap<>();
   private final List<String> sourcesList = new ArrayList<>();
   private final IssuesLoader issuesLoader;
   private final BSLHighlighter highlighter;
 
   private final Set<String> diagnosticsOnProject;
   private final Set<String> diagnosticsWithExtraMins;
+  private AnalysisCache analysisCache = AnalysisCache.disabled();
 
   public BSLCoreSensor(SensorContext context, FileLinesContextFactory fileLinesContextFactory) {
     this.context = context;
@@ -83,6 +129,32 @@ public class BSLCoreSensor implements Sensor {
 
     langServerEnabled = context.config().getBoolean(BSLCommunityProperties.LANG_SERVER_ENABLED_KEY)
       .orElse(BSLCommunityProperties.LANG_SERVER_ENABLED_DEFAULT_VALUE);
+    incrementalAnalysisEnabled = context.config().getBoolean(BSLCommunityProperties.INCREMENTAL_ANALYSIS_ENABLED_KEY)
+      .orElse(BSLCommunityProperties.INCREMENTAL_ANALYSIS_ENABLED_DEFAULT_VALUE);
+    analysisThreads = context.config().getInt(BSLCommunityProperties.ANALYSIS_THREADS_KEY)
+      .orElse(BSLCommunityProperties.ANALYSIS_THREADS_DEFAULT_VALUE);
+    admissionController = new AdmissionController(AdmissionController.budgetBytes(
+      context.config().getInt(BSLCommunityProperties.ANALYSIS_HEAP_BUDGET_KEY)
+        .orElse(BSLCommunityProperties.ANALYSIS_HEAP_BUDGET_DEFAULT_VALUE)));
+    workOrdering = WorkOrdering.valueOf(context.config()
+      .get(BSLCommunityProperties.ANALYSIS_ORDERING_KEY)
+      .orElse(BSLCommunityProperties.ANALYSIS_ORDERING_DEFAULT_VALUE)
+      .toUpperCase(Locale.ENGLISH)
+      .replace(" ", "_"));
+    sourceDirsConcurrency = context.config().getInt(BSLCommunityProperties.SOURCE_DIRS_CONCURRENCY_KEY)
+      .orElse(BSLCommunityProperties.SOURCE_DIRS_CONCURRENCY_DEFAULT_VALUE);
+    statisticsReportEnabled = context.config().getBoolean(BSLCommunityProperties.ANALYSIS_STATISTICS_REPORT_KEY)
+      .orElse(BSLCommunityProperties.ANALYSIS_STATISTICS_REPORT_DEFAULT_VALUE);
+    profileDiagnostics = context.config().getBoolean(BSLCommunityProperties.PROFILE_DIAGNOSTICS_KEY)
+      .orElse(BSLCommunityProperties.PROFILE_DIAGNOSTICS_DEFAULT_VALUE);
+    highlightingPolicy = new HighlightingPolicy(
+      context.config().getInt(BSLCommunityProperties.HIGHLIGHTING_MAX_LINES_KEY)
+        .orElse(BSLCommunityProperties.HIGHLIGHTING_MAX_LINES_DEFAULT_VALUE),
+      context.config().getInt(BSLCommunityProperties.HIGHLIGHTING_MAX_SIZE_KEY)
+        .orElse(BSLCommunityProperties.HIGHLIGHTING_MAX_SIZE_DEFAULT_VALUE),
+      context.config().getStringArray(BSLCommunityProperties.HIGHLIGHTING_EXCLUSIONS_KEY),
+      context.fileSystem().predicates()
+    );
 
     sourcesList.addAll(context.config().get("sonar.sources")
       .map(sources ->
@@ -98,7 +170,14 @@ public class BSLCoreSensor implements Sensor {
           .toList())
       .orElse(Collections.emptyList()));
 
-    issuesLoader = new IssuesLoader(context);
+    var threads = AnalysisExecutor.threadsCount(analysisThreads);
+    resultWriter = new WriterStage(
+      "bsl-result-writer-",
+      WriterStage.writersCount(threads),
+      threads * RESULT_WRITE_QUEUE_CAPACITY_PER_THREAD
+    );
+
+    issuesLoader = new IssuesLoader(context, InputFileIndex.of(context.fileSystem()));
     highlighter = new BSLHighlighter(context);
 
     diagnosticsOnProject = new HashSet<>();
@@ -145,74 +224,352 @@ public class BSLCoreSensor implements Sensor {
       }));
 
     var languageServerConfiguration = getLanguageServerConfiguration();
+    if (profileDiagnostics) {
+      diagnosticProfiler.install(BSLLSBinding.getApplicationContext());
+    }
+    analysisCache = createAnalysisCache(languageServerConfiguration, inputFilesByPath.keySet());
+    var previousDurations = analysisCache.readDurations();
+
+    var serverContextsCount = ServerContextPool.size(sourceDirsConcurrency, inputFilesByPath.size());
 
-    inputFilesByPath.forEach((Path sourceDir, List<InputFile> inputFilesList) -> {
-      LOGGER.info("Source dir: {}", sourceDir);
+    try (var executor = new AnalysisExecutor(AnalysisExecutor.threadsCount(analysisThreads));
+         var serverContexts = new ServerContextPool(serverContextsCount, this::configureIsolatedContext)) {
+      var budgetBytes = admissionController.getBudgetBytes();
+      LOGGER.info("Analysis threads: {}, memory budget: {}, source dirs in parallel: {}",
+        executor.getThreads(), budgetBytes > 0 ? (budgetBytes / 1024 / 1024 + " MB") : "not limited",
+        serverContextsCount);
 
-      var configurationRoot = LanguageServerConfiguration.getCustomConfigurationRoot(
+      Consumer<Map.Entry<Path, List<InputFile>>> sourceDirProcessor = entry -> processSourceDir(
+        entry.getKey(),
+        workOrdering.order(entry.getValue(), previousDurations),
         languageServerConfiguration,
-        sourceDir
+        executor,
+        serverContexts
       );
 
-      var bslServerContext = BSLLSBinding.getServerContext();
+      Throwable failure = null;
+      try {
+        if (serverContextsCount == 1) {
+          inputFilesByPath.entrySet().forEach(sourceDirProcessor);
+        } else {
+          processInParallel(inputFilesByPath.entrySet(), sourceDirProcessor, serverContextsCount);
+        }
+      } catch (RuntimeException | Error e) {
+        failure = e;
+        throw e;
+      } finally {
+        awaitWriters(failure);
+      }
+
+      executor.logStatistics();
+      LOGGER.info("Files delayed by memory budget: {}", admissionController.getDelayedFiles());
+    }
+
+    saveDurations(inputFilesByPath.values(), previousDurations);
+    analysisCache.removeStaleEntries();
+
+    issuesLoader.logSummary();
+    highlightingPolicy.logSummary();
+    phaseStatistics.logSummary();
+    if (statisticsReportEnabled) {
+      phaseStatistics.writeReport(context.fileSystem().workDir().toPath().resolve(STATISTICS_REPORT_FILE_NAME));
+    }
+    if (profileDiagnostics) {
+      diagnosticProfiler.logSummary();
+      diagnosticProfiler.writeReport(context.fileSystem().workDir().toPath().resolve(DIAGNOSTICS_PROFILE_FILE_NAME));
+    }
+
+    BSLLSBinding.getApplicationContext().close();
+  }
+
+  /**
+   * Ожидает завершения записи результатов, в том числе после ошибки обработки, чтобы задачи записи
+   * не выполнялись после завершения сенсора. Ошибки записи добавляются к ошибке обработки как подавленные.
+   */
+  private void awaitWriters(@Nullable Throwable processingFailure) {
+    var failure = processingFailure;
+    for (var writer : List.of(resultWriter, cpdWriter)) {
+      try {
+        writer.awaitCompletion();
+      } catch (RuntimeException | Error e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+
+    if (processingFailure == null) {
+      if (failure instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (failure instanceof Error error) {
+        throw error;
+      }
+    }
+  }
+
+  private void processSourceDir(
+    Path sourceDir,
+    List<InputFile> inputFilesList,
+    LanguageServerConfiguration languageServerConfiguration,
+    AnalysisExecutor executor,
+    ServerContextPool serverContexts
+  ) {
+    LOGGER.info("Source dir: {}", sourceDir);
+
+    var configurationRoot = LanguageServerConfiguration.getCustomConfigurationRoot(
+      languageServerConfiguration,
+      sourceDir
+    );
+
+    var bslServerContext = serverContexts.acquire();
+    var populateThreadNamePrefix = POPULATE_CONTEXT_THREAD_NAME_PREFIX + sourceDir.getFileName() + "-";
+    try (var populateExecutor = new AnalysisExecutor(1, populateThreadNamePrefix)) {
       bslServerContext.setConfigurationRoot(configurationRoot);
-      bslServerContext.populateContext();
+      // метаданные загружаются одновременно с не зависящей от них обработкой файлов
+      populateExecutor.submit(() -> phaseStatistics.measure(Phase.POPULATE_CONTEXT, sourceDir,
+        bslServerContext::populateContext));
 
       int total = inputFilesList.size();
       var count = new AtomicInteger(0);
+      Map<InputFile, PreparedFile> preparedFiles = new ConcurrentHashMap<>();
+
+      var prepareGroup = executor.newTaskGroup();
+      inputFilesList.forEach((InputFile inputFile) -> prepareGroup.submit(() -> {
+        LOGGER.debug(inputFile.uri().toString());
+        prepareFile(inputFile).ifPresentOrElse(
+          preparedFile -> preparedFiles.put(inputFile, preparedFile),
+          () -> logProgress(count.incrementAndGet(), total, executor)
+        );
+      }));
+      try {
+        prepareGroup.awaitCompletion();
+      } finally {
+        populateExecutor.awaitCompletion();
+      }
 
-      inputFilesList.parallelStream().forEach((InputFile inputFile) -> {
-        var uri = inputFile.uri();
-        LOGGER.debug(uri.toString());
-        processFile(inputFile, bslServerContext);
-        var current = count.incrementAndGet();
-        if (current % COUNT_FILES_PB == 0) {
-          LOGGER.info("Processing files: {}/{}", current, total);
-        }
-      });
+      var analysisGroup = executor.newTaskGroup();
+      inputFilesList.stream()
+        .filter(preparedFiles::containsKey)
+        .toList()
+        .forEach((InputFile inputFile) -> analysisGroup.submit(() -> {
+          processFile(inputFile, preparedFiles.remove(inputFile), bslServerContext);
+          logProgress(count.incrementAndGet(), total, executor);
+        }));
+      analysisGroup.awaitCompletion();
+
+      LOGGER.info("Processing files in {}: {}/{}", sourceDir, count.get(), total);
+    } finally {
+      bslServerContext.clear();
+      serverContexts.release(bslServerContext);
+    }
+  }
 
-      LOGGER.info("Processing files: {}/{}", count.get(), total);
+  private static void logProgress(int current, int total, AnalysisExecutor executor) {
+    if (current % COUNT_FILES_PB == 0) {
+      LOGGER.info("Processing files: {}/{} (queue: {})", current, total, executor.queueDepth());
+    }
+  }
 
-      bslServerContext.clear();
-    });
+  private static <T> void processInParallel(Collection<T> items, Consumer<T> processor, int parallelism) {
+    try (var sourceDirExecutor = new AnalysisExecutor(parallelism, SOURCE_DIR_THREAD_NAME_PREFIX)) {
+      items.forEach(item -> sourceDirExecutor.submit(() -> processor.accept(item)));
+      sourceDirExecutor.awaitCompletion();
+    }
+  }
 
-    BSLLSBinding.getApplicationContext().close();
+  /**
+   * Обработка файла, не требующая метаданных конфигурации: восстановление из кэша анализа
+   * либо лексический разбор файла, вычисление и сохранение токенов CPD.
+   * Выполняется одновременно с загрузкой метаданных.
+   *
+   * @return Данные для анализа файла или пустое значение, если файл восстановлен из кэша
+   */
+  private Optional<PreparedFile> prepareFile(InputFile inputFile) {
+    var cachedFile = phaseStatistics.measure(Phase.CACHE_READ, inputFile, () -> readCachedFile(inputFile));
+    var cachedResult = cachedFile.result();
+    var cachedCpdTokens = cachedFile.cpdTokens();
+    if (cachedResult != null && cachedCpdTokens != null && cachedFile.highlighting() != null) {
+      LOGGER.debug("Restored from analysis cache: {}", inputFile);
+      phaseStatistics.measure(Phase.SAVE_CPD, inputFile, () -> saveCpd(inputFile, cachedCpdTokens));
+      saveFileResult(inputFile, cachedResult, cachedFile.highlighting());
+      return Optional.empty();
+    }
+
+    var cpdTokens = Optional.ofNullable(cachedCpdTokens).orElseGet(() -> tokenizeCpd(inputFile));
+    phaseStatistics.measure(Phase.SAVE_CPD, inputFile, () -> saveCpd(inputFile, cpdTokens));
+
+    // новые токены удерживаются до записи в кэш вместе с результатом анализа, только если кэш используется
+    CpdTokenStream uncachedCpdTokens = null;
+    if (cachedCpdTokens == null && analysisCache != AnalysisCache.disabled()) {
+      uncachedCpdTokens = cpdTokens;
+    }
+    return Optional.of(new PreparedFile(cachedFile.highlighting(), uncachedCpdTokens));
   }
 
-  private void processFile(InputFile inputFile, ServerContext bslServerContext) {
+  /**
+   * Токены CPD по отдельной лексической разметке файла. Лексер не зависит от метаданных конфигурации,
+   * поэтому разметка выполняется до загрузки метаданных, а не после разбора документа.
+   */
+  private CpdTokenStream tokenizeCpd(InputFile inputFile) {
+    try (var admission = admit(inputFile)) {
+      var content = inputFile.contents();
+      return phaseStatistics.measure(Phase.CPD_TOKENIZE, inputFile,
+        () -> computeCpdTokens(new BSLTokenizer(content).getTokens()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read file " + inputFile, e);
+    }
+  }
+
+  /**
+   * Чтение всех записей файла из кэша анализа. Результат анализа читается, только если в кэше есть
+   * подсветка и токены CPD: без них файл все равно придется разбирать.
+   */
+  private CachedFile readCachedFile(InputFile inputFile) {
+    // подсветка и токены CPD не зависят от настроек анализа и могут быть в кэше,
+    // даже если результат анализа устарел
+    int[] highlighting;
+    if (highlightingPolicy.isHighlighted(inputFile)) {
+      highlighting = analysisCache.readHighlighting(inputFile).orElse(null);
+    } else {
+      highlighting = HighlightingStream.EMPTY;
+    }
+    var cpdTokens = analysisCache.readCpdTokens(inputFile).orElse(null);
+
+    FileAnalysisResult result = null;
+    if (highlighting != null && cpdTokens != null) {
+      result = analysisCache.read(inputFile).orElse(null);
+    }
+    return new CachedFile(highlighting, cpdTokens, result);
+  }
+
+  /**
+   * Запись в кэш анализа результатов файла, которых в кэше не оказалось
+   */
+  private void writeCachedFile(InputFile inputFile, PreparedFile preparedFile, AnalyzedFile analyzedFile) {
+    var cpdTokens = preparedFile.uncachedCpdTokens();
+    if (cpdTokens != null) {
+      analysisCache.writeCpdTokens(inputFile, cpdTokens);
+    }
+    if (preparedFile.highlighting() == null) {
+      analysisCache.writeHighlighting(inputFile, analyzedFile.highlighting());
+    }
+    analysisCache.write(inputFile, analyzedFile.result());
+  }
+
+  private void processFile(InputFile inputFile, PreparedFile preparedFile, ServerContext bslServerContext) {
+    AnalyzedFile analyzedFile;
+    try (var admission = admit(inputFile)) {
+      var start = System.nanoTime();
+      analyzedFile = analyzeFile(inputFile, preparedFile, bslServerContext);
+      fileDurations.merge(inputFile.key(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Long::sum);
+    }
+
+    phaseStatistics.measure(Phase.CACHE_WRITE, inputFile, () -> writeCachedFile(inputFile, preparedFile, analyzedFile));
+    saveFileResult(inputFile, analyzedFile.result(), analyzedFile.highlighting());
+  }
+
+  private AdmissionController.Admission admit(InputFile inputFile) {
+    return phaseStatistics.measure(Phase.ADMISSION, inputFile, () -> admissionController.admit(inputFile));
+  }
+
+  private AnalyzedFile analyzeFile(
+    InputFile inputFile,
+    PreparedFile preparedFile,
+    ServerContext bslServerContext
+  ) {
     var uri = inputFile.uri();
-    var documentContext = bslServerContext.addDocument(uri);
-    bslServerContext.rebuildDocument(documentContext);
+    var documentContext = phaseStatistics.measure(Phase.PARSE, inputFile, () -> {
+      var document = bslServerContext.addDocument(uri);
+      bslServerContext.rebuildDocument(document);
+      return document;
+    });
 
+    List<Diagnostic> diagnostics;
     if (langServerEnabled) {
-      documentContext.getDiagnostics()
-        .forEach((Diagnostic diagnostic) -> {
-          var code = DiagnosticCode.getStringValue(diagnostic.getCode());
-          var hasExtraMins = diagnosticsWithExtraMins.contains(code);
+      diagnostics = phaseStatistics.measure(Phase.DIAGNOSTICS, inputFile, documentContext::getDiagnostics);
+    } else {
+      diagnostics = Collections.emptyList();
+    }
 
-          if (diagnosticsOnProject.contains(code)) {
-            issuesLoader.createIssue(Either.forRight(context.project()), diagnostic, hasExtraMins);
-          } else {
-            issuesLoader.createIssue(Either.forLeft(inputFile), diagnostic, hasExtraMins);
-          }
-        });
+    // подсветка вычисляется до очистки документа: токены запросов берутся из токенизаторов,
+    // уже построенных контекстом документа для диагностик, без повторного разбора текстов запросов
+    // сохранение подсветки выполняется потоками записи, поток анализа только кодирует ее в компактный поток
+    var highlighting = preparedFile.highlighting();
+    if (highlighting == null) {
+      highlighting = phaseStatistics.measure(Phase.HIGHLIGHTING, inputFile,
+        () -> highlighter.encodeHighlighting(documentContext));
     }
 
-    saveCpd(inputFile, documentContext);
-    highlighter.saveHighlighting(inputFile, documentContext);
-    saveMeasures(inputFile, documentContext);
+    var result = new FileAnalysisResult(
+      diagnostics,
+      phaseStatistics.measure(Phase.MEASURES, inputFile, () -> computeMeasures(documentContext))
+    );
 
     // clean up AST after diagnostic computing to free up RAM.
     bslServerContext.tryClearDocument(documentContext);
+
+    return new AnalyzedFile(result, highlighting);
   }
 
-  private void saveCpd(InputFile inputFile, DocumentContext documentContext) {
+  private void saveDurations(Collection<List<InputFile>> inputFiles, Map<String, Long> previousDurations) {
+    // для файлов, восстановленных из кэша, сохраняется длительность их последнего анализа
+    Map<String, Long> durations = new HashMap<>();
+    inputFiles.stream()
+      .flatMap(Collection::stream)
+      .map(InputFile::key)
+      .forEach((String key) -> {
+        var duration = fileDurations.getOrDefault(key, previousDurations.get(key));
+        if (duration != null) {
+          durations.put(key, duration);
+        }
+      });
+    analysisCache.writeDurations(durations);
+  }
 
-    var cpdTokens = context.newCpdTokens();
-    cpdTokens.onFile(inputFile);
+  /**
+   * Передает результат анализа файла потокам записи: сохранение замечаний, мер и подсветки
+   * через API сенсора не занимает потоки анализа.
+   */
+  private void saveFileResult(InputFile inputFile, FileAnalysisResult result, int[] highlighting) {
+    resultWriter.submit(() -> {
+      phaseStatistics.measure(Phase.SAVE_ISSUES, inputFile, () -> saveIssues(inputFile, result.diagnostics()));
+      phaseStatistics.measure(Phase.SAVE_MEASURES, inputFile, () -> saveMeasures(inputFile, result.measures()));
+      saveHighlighting(inputFile, highlighting);
+    });
+  }
+
+  private void saveHighlighting(InputFile inputFile, int[] highlighting) {
+    if (highlightingPolicy.isHighlighted(inputFile)) {
+      phaseStatistics.measure(Phase.SAVE_HIGHLIGHTING, inputFile,
+        () -> highlighter.saveHighlighting(inputFile, highlighting));
+    } else {
+      highlightingPolicy.recordSkipped(inputFile);
+    }
+  }
+
+  private void saveIssues(InputFile inputFile, List<Diagnostic> diagnostics) {
+    diagnostics.forEach((Diagnostic diagnostic) -> {
+      var code = DiagnosticCode.getStringValue(diagnostic.getCode());
+      var hasExtraMins = diagnosticsWithExtraMins.contains(code);
+
+      if (diagnosticsOnProject.contains(code)) {
+        issuesLoader.createIssue(Either.forRight(context.project()), diagnostic, hasExtraMins);
+      } else {
+        issuesLoader.createIssue(Either.forLeft(inputFile), diagnostic, hasExtraMins);
+      }
+    });
+  }
+
+  /**
+   * Отбирает токены CPD. При изменении правил отбора нужно увеличить {@link CpdTokenStream#RULES_VERSION}.
+   */
+  static CpdTokenStream computeCpdTokens(List<Token> tokens) {
+    var cpdTokens = new CpdTokenStream.Builder();
 
     var skipCpd = false;
-    for (Token token : documentContext.getTokens()) {
+    for (Token token : tokens) {
       if (token.getChannel() != Token.DEFAULT_CHANNEL) {
         skipCpd = checkSkipCpd(token, skipCpd);
         continue;
@@ -222,11 +579,10 @@ public class BSLCoreSensor implements Sensor {
         int line = token.getLine();
         int charPositionInLine = token.getCharPositionInLine();
         var tokenText = token.getText();
-        cpdTokens.addToken(
+        cpdTokens.add(
           line,
           charPositionInLine,
-          line,
-          charPositionInLine + (int) tokenText.codePoints().count(),
+          charPositionInLine + tokenText.codePointCount(0, tokenText.length()),
           tokenText
         );
       }
@@ -235,65 +591,175 @@ public class BSLCoreSensor implements Sensor {
 
     }
 
-    synchronized (this) {
-      cpdTokens.save();
-    }
+    return cpdTokens.build();
   }
 
-  private void saveMeasures(InputFile inputFile, DocumentContext documentContext) {
+  /**
+   * Формирует токены CPD файла и передает их потоку записи: индекс дубликатов SonarQube
+   * не допускает одновременного сохранения, а потоки анализа не должны ожидать друг друга.
+   */
+  void saveCpd(InputFile inputFile, CpdTokenStream tokens) {
+
+    var cpdTokens = context.newCpdTokens();
+    cpdTokens.onFile(inputFile);
+
+    tokens.forEach((line, startChar, endChar, image) ->
+      cpdTokens.addToken(line, startChar, line, endChar, image)
+    );
 
+    cpdWriter.submit(cpdTokens::save);
+  }
+
+  private static Measures computeMeasures(DocumentContext documentContext) {
     var metrics = documentContext.getMetrics();
+    return new Measures(
+      metrics.getNcloc(),
+      metrics.getStatements(),
+      metrics.getProcedures() + metrics.getFunctions(),
+      metrics.getCognitiveComplexity(),
+      metrics.getCyclomaticComplexity(),
+      metrics.getComments(),
+      metrics.getNclocData()
+    );
+  }
+
+  private void saveMeasures(InputFile inputFile, Measures measures) {
 
     context.<Integer>newMeasure().on(inputFile)
       .forMetric(CoreMetrics.NCLOC)
-      .withValue(metrics.getNcloc())
+      .withValue(measures.ncloc())
       .save();
 
     context.<Integer>newMeasure().on(inputFile)
       .forMetric(CoreMetrics.STATEMENTS)
-      .withValue(metrics.getStatements())
+      .withValue(measures.statements())
       .save();
 
     context.<Integer>newMeasure()
       .on(inputFile)
       .forMetric(CoreMetrics.FUNCTIONS)
-      .withValue(metrics.getProcedures() + metrics.getFunctions())
+      .withValue(measures.functions())
       .save();
 
     context.<Integer>newMeasure()
       .on(inputFile)
       .forMetric(CoreMetrics.COGNITIVE_COMPLEXITY)
-      .withValue(metrics.getCognitiveComplexity())
+      .withValue(measures.cognitiveComplexity())
       .save();
 
     context.<Integer>newMeasure()
       .on(inputFile)
       .forMetric(CoreMetrics.COMPLEXITY)
-      .withValue(metrics.getCyclomaticComplexity())
+      .withValue(measures.cyclomaticComplexity())
       .save();
 
     context.<Integer>newMeasure()
       .on(inputFile)
       .forMetric(CoreMetrics.COMMENT_LINES)
-      .withValue(metrics.getComments())
+      .withValue(measures.comments())
       .save();
 
     var fileLinesContext = fileLinesContextFactory.createFor(inputFile);
-    for (var line : metrics.getNclocData()) {
+    for (var line : measures.nclocData()) {
       fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, 1);
     }
     fileLinesContext.save();
 
   }
 
+  private AnalysisCache createAnalysisCache(LanguageServerConfiguration configuration, Collection<Path> sourceDirs) {
+    var cacheDirectory = context.config().get(BSLCommunityProperties.LOCAL_CACHE_PATH_KEY)
+      .filter(StringUtils::isNotBlank);
+    var useSensorCache = incrementalAnalysisEnabled && context.isCacheEnabled();
+
+    if (incrementalAnalysisEnabled && !useSensorCache) {
+      LOGGER.info("Incremental analysis is enabled, but analysis cache is not available.");
+    }
+
+    if (!useSensorCache && cacheDirectory.isEmpty()) {
+      return AnalysisCache.disabled();
+    }
+
+    String metadataFingerprint;
+    try {
+      metadataFingerprint = metadataFingerprint(configuration, sourceDirs);
+    } catch (UncheckedIOException e) {
+      LOGGER.error("Can't compute configuration metadata fingerprint, analysis cache is disabled", e);
+      return AnalysisCache.disabled();
+    }
+
+    var fingerprint = AnalysisFingerprint.compute(
+      configuration,
+      langServerEnabled,
+      context.activeRules(),
+      metadataFingerprint
+    );
+    var highlightingFingerprint = AnalysisFingerprint.highlighting(highlightingPolicy);
+    var contentHashes = new ContentHashes();
+    List<AnalysisCache> caches = new ArrayList<>();
+
+    if (useSensorCache) {
+      LOGGER.info("Incremental analysis is enabled.");
+      caches.add(new SensorAnalysisCache(context, fingerprint, highlightingFingerprint, contentHashes));
+    }
+
+    cacheDirectory.ifPresent((String path) -> {
+      var directory = Absolute.path(context.fileSystem().baseDir().toPath().resolve(path));
+      try {
+        caches.add(new LocalAnalysisCache(directory, fingerprint, highlightingFingerprint, contentHashes));
+        LOGGER.info("Local analysis cache: {}", directory);
+      } catch (IOException e) {
+        LOGGER.error("Can't create local analysis cache directory {}", directory, e);
+      }
+    });
+
+    if (caches.isEmpty()) {
+      return AnalysisCache.disabled();
+    }
+    return new CompositeAnalysisCache(caches);
+  }
+
+  /**
+   * Отпечаток метаданных конфигураций всех каталогов исходников. Пересчитывается при каждом запуске
+   * с кэшем анализа: результаты диагностик неизмененных модулей не восстанавливаются после изменения
+   * метаданных.
+   */
+  private String metadataFingerprint(LanguageServerConfiguration configuration, Collection<Path> sourceDirs) {
+    List<Path> configurationRoots = new ArrayList<>();
+    sourceDirs.forEach((Path sourceDir) -> {
+      var configurationRoot = LanguageServerConfiguration.getCustomConfigurationRoot(configuration, sourceDir);
+      if (configurationRoot != null) {
+        configurationRoots.add(configurationRoot);
+      }
+    });
+
+    var start = System.nanoTime();
+    var fingerprint = AnalysisFingerprint.metadata(configurationRoots);
+    LOGGER.debug("Configuration metadata fingerprint computed in {} ms",
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return fingerprint;
+  }
+
+  private void configureIsolatedContext(ConfigurableApplicationContext applicationContext) {
+    configureLanguageServer(applicationContext.getBean(LanguageServerConfiguration.class));
+    if (profileDiagnostics) {
+      diagnosticProfiler.install(applicationContext);
+    }
+  }
+
   private LanguageServerConfiguration getLanguageServerConfiguration() {
+    var configuration = BSLLSBinding.getLanguageServerConfiguration();
+    configureLanguageServer(configuration);
+    return configuration;
+  }
+
+  private void configureLanguageServer(LanguageServerConfiguration configuration) {
 
     boolean overrideConfiguration = context.config()
       .get(BSLCommunityProperties.LANG_SERVER_OVERRIDE_CONFIGURATION_KEY)
       .map(Boolean::parseBoolean)
       .orElse(BSLCommunityProperties.LANG_SERVER_OVERRIDE_CONFIGURATION_DEFAULT_VALUE);
 
-    var configuration = BSLLSBinding.getLanguageServerConfiguration();
     if (overrideConfiguration) {
       String configurationPath = context.config()
         .get(BSLCommunityProperties.LANG_SERVER_CONFIGURATION_PATH_KEY)
@@ -303,7 +769,7 @@ public class BSLCoreSensor implements Sensor {
       if (configurationFile.exists()) {
         LOGGER.info("BSL LS configuration file exists. Overriding SonarQube rules' settings...");
         configuration.update(configurationFile);
-        return configuration;
+        return;
       } else {
         LOGGER.error("Can't find bsl configuration file {}. Using SonarQube config instead.", configurationPath);
       }
@@ -373,8 +839,6 @@ public class BSLCoreSensor implements Sensor {
     }
 
     configuration.getDiagnosticsOptions().setParameters(diagnostics);
-
-    return configuration;
   }
 
   private static Object castDiagnosticParameterValue(String valueToCast, Class<?> type) {
@@ -427,4 +891,37 @@ public class BSLCoreSensor implements Sensor {
     );
     return diagnosticConfiguration;
   }
+
+  /**
+   * Данные, подготовленные для анализа файла до загрузки метаданных конфигурации
+   *
+   * @param highlighting      Подсветка из кэша анализа или пустая подсветка для пропускаемого файла.
+   *                          Если не задана, подсветка вычисляется при анализе
+   * @param uncachedCpdTokens Токены CPD, вычисленные при подготовке и еще не записанные в кэш анализа
+   */
+  private record PreparedFile(@Nullable int[] highlighting, @Nullable CpdTokenStream uncachedCpdTokens) {
+  }
+
+  /**
+   * Записи файла, прочитанные из кэша анализа
+   *
+   * @param highlighting Подсветка из кэша анализа или пустая подсветка для пропускаемого файла
+   * @param cpdTokens    Токены CPD из кэша анализа
+   * @param result       Результат анализа из кэша
+   */
+  private record CachedFile(
+    @Nullable int[] highlighting,
+    @Nullable CpdTokenStream cpdTokens,
+    @Nullable FileAnalysisResult result
+  ) {
+  }
+
+  /**
+   * Неизменяемый результат анализа файла, передаваемый потокам записи
+   *
+   * @param result       Замечания и меры файла
+   * @param highlighting Подсветка файла в виде закодированного потока
+   */
+  private record AnalyzedFile(FileAnalysisResult result, int[] highlighting) {
+  }
 }
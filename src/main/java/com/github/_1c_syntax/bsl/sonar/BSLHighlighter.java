@@ -22,30 +22,18 @@
 package com.github._1c_syntax.bsl.sonar;
 
 import com.github._1c_syntax.bsl.languageserver.context.DocumentContext;
-import com.github._1c_syntax.bsl.languageserver.utils.Ranges;
 import com.github._1c_syntax.bsl.parser.BSLLexer;
 import com.github._1c_syntax.bsl.parser.SDBLLexer;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.antlr.v4.runtime.Token;
-import org.antlr.v4.runtime.Tokenizer;
-import org.eclipse.lsp4j.Range;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 
 import javax.annotation.Nullable;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -70,131 +58,268 @@ public class BSLHighlighter {
   private static final Set<Integer> SDBL_PARAMETERS = createSdblParameters();
   private static final Set<Integer> SDBL_EDS = createSdblEDS();
 
+  // плотные таблицы тип токена -> тип подсветки, чтобы не упаковывать тип токена и не искать его в множествах
+  private static final TypeOfText[] BSL_TYPES_OF_TEXT = createBslTypesOfText();
+  private static final TypeOfText[] SDBL_TYPES_OF_TEXT = createSdblTypesOfText();
+
+  private static final int NO_LINE = -1;
+
+  // буферы переиспользуются между файлами, обрабатываемыми одним потоком анализа
+  private static final ThreadLocal<HighlightingBuffer> BUFFERS = ThreadLocal.withInitial(HighlightingBuffer::new);
+  private static final ThreadLocal<HighlightingBuffer> QUERY_BUFFERS = ThreadLocal.withInitial(HighlightingBuffer::new);
+
   private final SensorContext context;
 
+  /**
+   * Вычисляет и сразу сохраняет подсветку файла, не накапливая ее целиком в памяти
+   */
   public void saveHighlighting(InputFile inputFile, DocumentContext documentContext) {
-    Set<HighlightingData> highlightingData = new HashSet<>(documentContext.getTokens().size());
+    var saver = new HighlightingSaver(inputFile);
+    emitHighlighting(documentContext, saver);
+    saver.save();
+  }
 
-    // populate bsl highlight data
-    documentContext.getTokens().forEach(token ->
-      highlightToken(token, highlightingData, getTypeOfTextBSL(token.getType()))
-    );
+  /**
+   * Сохраняет подсветку, ранее вычисленную {@link #encodeHighlighting(DocumentContext)}
+   */
+  public void saveHighlighting(InputFile inputFile, int[] highlighting) {
+    if (highlighting.length == 0) {
+      return;
+    }
 
-    // compute and populate sdbl highlight data
-    var queryTokens = documentContext.getQueries().stream()
-      .map(Tokenizer::getTokens)
-      .flatMap(Collection::stream)
-      .collect(Collectors.groupingBy(Token::getLine));
-    Map<Integer, Set<HighlightingData>> highlightingDataSDBL = new HashMap<>(queryTokens.size());
-
-    queryTokens.values().stream()
-      .flatMap(Collection::stream)
-      .forEach(token -> highlightToken(
-        token,
-        highlightingDataSDBL.computeIfAbsent(token.getLine(), BSLHighlighter::newHashSet),
-        getTypeOfTextSDBL(token.getType()))
-      );
-
-    // find bsl strings to check overlap with sdbl tokens
-    var strings = highlightingData.stream()
-      .filter(data -> data.getType() == TypeOfText.STRING)
-      .collect(Collectors.toSet());
-
-    strings.forEach((HighlightingData string) -> {
-      Range stringRange = string.getRange();
-
-      // find overlapping tokens
-      var dataOfCurrentLine = highlightingDataSDBL.get(stringRange.getStart().getLine());
-      if (Objects.isNull(dataOfCurrentLine)) {
-        return;
-      }
+    var saver = new HighlightingSaver(inputFile);
+    HighlightingStream.replay(highlighting, saver);
+    saver.save();
+  }
 
-      var currentTokens = dataOfCurrentLine.stream()
-        .filter(sdblData -> Ranges.containsRange(stringRange, sdblData.getRange()))
-        .sorted(Comparator.comparing(data -> data.getRange().getStart().getCharacter()))
-        .toList();
+  /**
+   * Вычисляет подсветку файла в компактном виде для сохранения в кэше анализа
+   */
+  public int[] encodeHighlighting(DocumentContext documentContext) {
+    var encoder = new HighlightingStream.Encoder();
+    emitHighlighting(documentContext, encoder);
+    return encoder.toArray();
+  }
 
-      if (currentTokens.isEmpty()) {
-        return;
+  /**
+   * Передает подсветку файла получателю в порядке следования в документе.
+   * <p>
+   * Токены BSL классифицируются и передаются по мере обхода. Буферизуются только строки файла,
+   * содержащие токены запросов: на них строковые литералы BSL разбиваются токенами запросов.
+   * <p>
+   * Токены запросов берутся из уже построенных контекстом документа токенизаторов запросов, которые
+   * используются и диагностиками, и один раз переводятся в отдельный буфер, упорядоченный по строкам.
+   */
+  private static void emitHighlighting(DocumentContext documentContext, HighlightingBuffer.Sink sink) {
+    var queries = QUERY_BUFFERS.get();
+    queries.clear();
+    documentContext.getQueries().forEach(query -> query.getTokens().forEach(token ->
+      highlightToken(token, queries, getTypeOfTextSDBL(token.getType()))
+    ));
+    var queryTokens = new QueryTokens(queries, queries.sortedIndexes(0, queries.size()));
+
+    var buffer = BUFFERS.get();
+    buffer.clear();
+
+    var bufferedLine = NO_LINE;
+    for (var token : documentContext.getTokens()) {
+      var typeOfText = getTypeOfTextBSL(token.getType());
+      if (typeOfText == null) {
+        continue;
       }
 
-      // disable current bsl token
-      string.setActive(false);
-
-      // split current bsl token to parts excluding sdbl tokens
-      var start = stringRange.getStart();
-      var line = start.getLine();
-      int startChar;
-      var endChar = start.getCharacter();
-      for (var currentToken : currentTokens) {
-        startChar = endChar;
-        endChar = currentToken.getRange().getStart().getCharacter();
-        var typeOfText = string.getType();
-
-        if (startChar < endChar) {
-          // add string part
-          highlightingData.add(new HighlightingData(line, startChar, endChar, typeOfText));
-        }
+      var line = token.getLine();
+      if (line != bufferedLine && bufferedLine != NO_LINE) {
+        emitQueryLine(buffer, queryTokens, sink);
+        bufferedLine = NO_LINE;
+      }
 
-        endChar = currentToken.getRange().getEnd().getCharacter();
+      // строки запросов без токенов BSL
+      while (queryTokens.hasNext() && queryTokens.line() < line) {
+        emitQueryLine(buffer, queryTokens, sink);
       }
 
-      // add final string part
-      startChar = endChar;
-      endChar = string.getRange().getEnd().getCharacter();
-      var typeOfText = string.getType();
+      if (queryTokens.hasNext() && queryTokens.line() == line) {
+        bufferedLine = line;
+      }
 
-      if (startChar < endChar) {
-        highlightingData.add(new HighlightingData(line, startChar, endChar, typeOfText));
+      var charPositionInLine = token.getCharPositionInLine();
+      var endChar = charPositionInLine + tokenLength(token);
+      if (line == bufferedLine) {
+        buffer.add(line, charPositionInLine, endChar, typeOfText);
+      } else {
+        sink.accept(line, charPositionInLine, endChar, typeOfText);
       }
-    });
+    }
 
-    // merge collected bsl tokens with sdbl tokens
-    highlightingDataSDBL.values().forEach(highlightingData::addAll);
+    if (bufferedLine != NO_LINE) {
+      emitQueryLine(buffer, queryTokens, sink);
+    }
+    while (queryTokens.hasNext()) {
+      emitQueryLine(buffer, queryTokens, sink);
+    }
 
-    if (highlightingData.stream().filter(HighlightingData::isActive).findAny().isEmpty()) {
+    queries.clear();
+  }
+
+  /**
+   * Передает получателю подсветку очередной строки файла с токенами запросов
+   *
+   * @param buffer      Буфер с токенами BSL строки
+   * @param queryTokens Токены запросов, текущая позиция - первый токен строки
+   * @param sink        Получатель подсветки
+   */
+  private static void emitQueryLine(HighlightingBuffer buffer, QueryTokens queryTokens, HighlightingBuffer.Sink sink) {
+    var bslSize = buffer.size();
+    queryTokens.moveLineTo(buffer);
+
+    splitStringsBySdblTokens(buffer, bslSize);
+
+    // keep only active tokens
+    buffer.forEachActive(sink);
+    buffer.clear();
+  }
+
+  /**
+   * Исключает из подсветки строк BSL части, занятые токенами запросов.
+   * <p>
+   * Строковые литералы BSL и токены запросов сортируются по позиции в документе,
+   * поэтому поиск вложенных токенов выполняется одним проходом слиянием.
+   *
+   * @param buffer  Буфер подсветки: сначала элементы BSL, затем элементы запросов
+   * @param bslSize Количество элементов BSL
+   */
+  private static void splitStringsBySdblTokens(HighlightingBuffer buffer, int bslSize) {
+    var size = buffer.size();
+    if (bslSize == size) {
       return;
     }
 
-    // save only active tokens
-    var highlighting = context.newHighlighting().onFile(inputFile);
+    var sdbl = buffer.sortedIndexes(bslSize, size);
+    var bsl = buffer.sortedIndexes(0, bslSize);
+
+    var cursor = 0;
+    for (var string : bsl) {
+      if (buffer.type(string) != TypeOfText.STRING) {
+        continue;
+      }
+
+      var line = buffer.line(string);
+      var stringStart = buffer.startChar(string);
+      var stringEnd = buffer.endChar(string);
+
+      // токены, начинающиеся до текущего литерала, не входят ни в него, ни в следующие литералы
+      while (cursor < sdbl.length
+        && (buffer.line(sdbl[cursor]) < line
+        || buffer.line(sdbl[cursor]) == line && buffer.startChar(sdbl[cursor]) < stringStart)) {
+        cursor++;
+      }
+
+      var split = false;
+      var partStart = stringStart;
+      for (var i = cursor;
+           i < sdbl.length && buffer.line(sdbl[i]) == line && buffer.startChar(sdbl[i]) <= stringEnd;
+           i++) {
+        var token = sdbl[i];
+        if (buffer.endChar(token) > stringEnd) {
+          continue;
+        }
 
-    highlightingData.stream()
-      .filter(HighlightingData::isActive)
-      .forEach(data -> applyHighlighting(highlighting, data, inputFile));
+        split = true;
+        if (partStart < buffer.startChar(token)) {
+          buffer.add(line, partStart, buffer.startChar(token), TypeOfText.STRING);
+        }
+        partStart = buffer.endChar(token);
+      }
+
+      if (!split) {
+        continue;
+      }
 
-    highlighting.save();
+      // disable current bsl token
+      buffer.deactivate(string);
+
+      if (partStart < stringEnd) {
+        buffer.add(line, partStart, stringEnd, TypeOfText.STRING);
+      }
+    }
   }
 
-  private static void applyHighlighting(
-    NewHighlighting highlighting,
-    HighlightingData data,
-    InputFile inputFile
-  ) {
-    try {
-      highlighting.highlight(
-        data.getRange().getStart().getLine(),
-        data.getRange().getStart().getCharacter(),
-        data.getRange().getEnd().getLine(),
-        data.getRange().getEnd().getCharacter(),
-        data.getType()
-      );
-    } catch (IllegalArgumentException e) {
-      LOGGER.error("Unable to highlight file {}", inputFile, e);
+  /**
+   * Токены запросов файла, упорядоченные по позиции в документе, с курсором по строкам
+   */
+  @RequiredArgsConstructor
+  private static class QueryTokens {
+    private final HighlightingBuffer tokens;
+    private final int[] order;
+    private int position;
+
+    boolean hasNext() {
+      return position < order.length;
+    }
+
+    int line() {
+      return tokens.line(order[position]);
+    }
+
+    /**
+     * Переносит в буфер токены текущей строки и переходит к следующей строке
+     */
+    void moveLineTo(HighlightingBuffer buffer) {
+      var line = line();
+      while (hasNext() && line() == line) {
+        var index = order[position++];
+        buffer.add(line, tokens.startChar(index), tokens.endChar(index), tokens.type(index));
+      }
+    }
+  }
+
+  /**
+   * Сохраняет подсветку файла, создавая ее при получении первого диапазона
+   */
+  @RequiredArgsConstructor
+  private class HighlightingSaver implements HighlightingBuffer.Sink {
+    private final InputFile inputFile;
+    @Nullable
+    private NewHighlighting highlighting;
+
+    @Override
+    public void accept(int line, int startChar, int endChar, TypeOfText type) {
+      if (highlighting == null) {
+        highlighting = context.newHighlighting().onFile(inputFile);
+      }
+
+      try {
+        highlighting.highlight(line, startChar, line, endChar, type);
+      } catch (IllegalArgumentException e) {
+        LOGGER.error("Unable to highlight file {}", inputFile, e);
+      }
+    }
+
+    void save() {
+      if (highlighting != null) {
+        highlighting.save();
+      }
     }
   }
 
-  public void highlightToken(
+  private static void highlightToken(
     Token token,
-    Collection<HighlightingData> highlightingData,
+    HighlightingBuffer buffer,
     @Nullable TypeOfText typeOfText
   ) {
     if (typeOfText == null) {
       return;
     }
 
-    var line = token.getLine();
     var charPositionInLine = token.getCharPositionInLine();
+    buffer.add(token.getLine(), charPositionInLine, charPositionInLine + tokenLength(token), typeOfText);
+  }
+
+  /**
+   * Длина подсвечиваемой части токена: первая строка текста токена без завершающих пробелов
+   */
+  private static int tokenLength(Token token) {
     var tokenText = token.getText().stripTrailing();
 
     var newlineIndex = tokenText.indexOf('\n');
@@ -202,73 +327,66 @@ public class BSLHighlighter {
       tokenText = tokenText.substring(0, newlineIndex).stripTrailing();
     }
 
-    var range = Ranges.create(
-      line,
-      charPositionInLine,
-      charPositionInLine + (int) tokenText.codePoints().count()
-    );
-
-    highlightingData.add(new HighlightingData(range, typeOfText));
+    return (int) tokenText.codePoints().count();
   }
 
   @Nullable
-  private static TypeOfText getTypeOfTextBSL(int tokenType) {
-    TypeOfText typeOfText;
-
-    if (BSL_KEYWORDS.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD;
-    } else if (BSL_SEPARATORS.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD_LIGHT;
-    } else if (BSL_LITERALS.contains(tokenType)) {
-      typeOfText = TypeOfText.CONSTANT;
-    } else if (BSL_STRINGS.contains(tokenType)) {
-      typeOfText = TypeOfText.STRING;
-    } else if (BSL_COMMENTS.contains(tokenType)) {
-      typeOfText = TypeOfText.COMMENT;
-    } else if (BSL_PREPROCESSOR.contains(tokenType)) {
-      typeOfText = TypeOfText.PREPROCESS_DIRECTIVE;
-    } else if (BSL_ANNOTATIONS.contains(tokenType)) {
-      typeOfText = TypeOfText.ANNOTATION;
-    } else {
-      typeOfText = null;
-    }
+  static TypeOfText getTypeOfTextBSL(int tokenType) {
+    return getTypeOfText(BSL_TYPES_OF_TEXT, tokenType);
+  }
 
-    return typeOfText;
+  @Nullable
+  static TypeOfText getTypeOfTextSDBL(int tokenType) {
+    return getTypeOfText(SDBL_TYPES_OF_TEXT, tokenType);
   }
 
   @Nullable
-  private static TypeOfText getTypeOfTextSDBL(int tokenType) {
-    TypeOfText typeOfText;
-
-    if (SDBL_KEYWORDS.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD;
-    } else if (SDBL_FUNCTIONS.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD_LIGHT;
-    } else if (SDBL_METADATA_TYPES.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD_LIGHT;
-    } else if (SDBL_VIRTUAL_TABLES.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD_LIGHT;
-    } else if (SDBL_LITERALS.contains(tokenType)) {
-      typeOfText = TypeOfText.CONSTANT;
-    } else if (SDBL_SEPARATORS.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD_LIGHT;
-    } else if (SDBL_STRINGS.contains(tokenType)) {
-      typeOfText = TypeOfText.STRING;
-    } else if (SDBL_COMMENTS.contains(tokenType)) {
-      typeOfText = TypeOfText.COMMENT;
-    } else if (SDBL_PARAMETERS.contains(tokenType)) {
-      typeOfText = TypeOfText.ANNOTATION;
-    } else if (SDBL_EDS.contains(tokenType)) {
-      typeOfText = TypeOfText.KEYWORD_LIGHT;
-    } else {
-      typeOfText = null;
+  private static TypeOfText getTypeOfText(TypeOfText[] typesOfText, int tokenType) {
+    if (tokenType < 0 || tokenType >= typesOfText.length) {
+      return null;
     }
+    return typesOfText[tokenType];
+  }
+
+  private static TypeOfText[] createBslTypesOfText() {
+    var typesOfText = new TypeOfText[BSLLexer.VOCABULARY.getMaxTokenType() + 1];
 
-    return typeOfText;
+    // порядок заполнения задает приоритет при попадании типа токена в несколько множеств
+    fillTypesOfText(typesOfText, BSL_KEYWORDS, TypeOfText.KEYWORD);
+    fillTypesOfText(typesOfText, BSL_SEPARATORS, TypeOfText.KEYWORD_LIGHT);
+    fillTypesOfText(typesOfText, BSL_LITERALS, TypeOfText.CONSTANT);
+    fillTypesOfText(typesOfText, BSL_STRINGS, TypeOfText.STRING);
+    fillTypesOfText(typesOfText, BSL_COMMENTS, TypeOfText.COMMENT);
+    fillTypesOfText(typesOfText, BSL_PREPROCESSOR, TypeOfText.PREPROCESS_DIRECTIVE);
+    fillTypesOfText(typesOfText, BSL_ANNOTATIONS, TypeOfText.ANNOTATION);
+
+    return typesOfText;
+  }
+
+  private static TypeOfText[] createSdblTypesOfText() {
+    var typesOfText = new TypeOfText[SDBLLexer.VOCABULARY.getMaxTokenType() + 1];
+
+    // порядок заполнения задает приоритет при попадании типа токена в несколько множеств
+    fillTypesOfText(typesOfText, SDBL_KEYWORDS, TypeOfText.KEYWORD);
+    fillTypesOfText(typesOfText, SDBL_FUNCTIONS, TypeOfText.KEYWORD_LIGHT);
+    fillTypesOfText(typesOfText, SDBL_METADATA_TYPES, TypeOfText.KEYWORD_LIGHT);
+    fillTypesOfText(typesOfText, SDBL_VIRTUAL_TABLES, TypeOfText.KEYWORD_LIGHT);
+    fillTypesOfText(typesOfText, SDBL_LITERALS, TypeOfText.CONSTANT);
+    fillTypesOfText(typesOfText, SDBL_SEPARATORS, TypeOfText.KEYWORD_LIGHT);
+    fillTypesOfText(typesOfText, SDBL_STRINGS, TypeOfText.STRING);
+    fillTypesOfText(typesOfText, SDBL_COMMENTS, TypeOfText.COMMENT);
+    fillTypesOfText(typesOfText, SDBL_PARAMETERS, TypeOfText.ANNOTATION);
+    fillTypesOfText(typesOfText, SDBL_EDS, TypeOfText.KEYWORD_LIGHT);
+
+    return typesOfText;
   }
 
-  private static Set<HighlightingData> newHashSet(Integer line) {
-    return new HashSet<>();
+  private static void fillTypesOfText(TypeOfText[] typesOfText, Set<Integer> tokenTypes, TypeOfText typeOfText) {
+    tokenTypes.forEach((Integer tokenType) -> {
+      if (typesOfText[tokenType] == null) {
+        typesOfText[tokenType] = typeOfText;
+      }
+    });
   }
 
   private static Set<Integer> createBslAnnotations() {
@@ -646,17 +764,4 @@ public class BSLHighlighter {
       SDBLLexer.EDS_CUBE_DIMTABLE
     );
   }
-
-  @Data
-  @RequiredArgsConstructor
-  @EqualsAndHashCode(exclude = "active")
-  private static class HighlightingData {
-    private final Range range;
-    private final TypeOfText type;
-    private boolean active = true;
-
-    public HighlightingData(int line, int startChar, int endChar, TypeOfText type) {
-      this(Ranges.create(line, startChar, endChar), type);
-    }
-  }
 }
@@ -0,0 +1,89 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Компактное представление токенов CPD файла.
+ * <p>
+ * Токены записываются в {@link RangeStream}, значением диапазона служит номер текста токена в таблице текстов.
+ * Одинаковые тексты токенов (ключевые слова, операторы, частые идентификаторы) хранятся один раз.
+ *
+ * @param tokens Поток чисел, описывающих токены
+ * @param images Таблица текстов токенов
+ */
+public record CpdTokenStream(int[] tokens, String[] images) {
+
+  /**
+   * Версия правил отбора токенов CPD. Должна увеличиваться при изменении правил пропуска токенов,
+   * чтобы сохраненные в кэше анализа токены перестали использоваться.
+   */
+  public static final int RULES_VERSION = 1;
+
+  /**
+   * Количество токенов
+   */
+  public int size() {
+    return tokens.length / RangeStream.RANGE_SIZE;
+  }
+
+  /**
+   * Передает получателю токены в порядке следования в файле
+   */
+  public void forEach(Sink sink) {
+    RangeStream.decode(tokens, (int line, int startChar, int endChar, int image) ->
+      sink.accept(line, startChar, endChar, images[image]));
+  }
+
+  /**
+   * Получатель токенов CPD
+   */
+  @FunctionalInterface
+  public interface Sink {
+    void accept(int line, int startChar, int endChar, String image);
+  }
+
+  /**
+   * Построитель потока токенов. Токены добавляются в порядке следования в файле.
+   */
+  public static class Builder {
+    private final Map<String, Integer> imageIds = new HashMap<>();
+    private final List<String> images = new ArrayList<>();
+    private final RangeStream.Encoder tokens = new RangeStream.Encoder();
+
+    public Builder add(int line, int startChar, int endChar, String image) {
+      tokens.add(line, startChar, endChar, imageIds.computeIfAbsent(image, (String key) -> {
+        images.add(key);
+        return images.size() - 1;
+      }));
+      return this;
+    }
+
+    public CpdTokenStream build() {
+      return new CpdTokenStream(tokens.toArray(), images.toArray(String[]::new));
+    }
+  }
+}
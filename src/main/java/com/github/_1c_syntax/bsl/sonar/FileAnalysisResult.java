@@ -0,0 +1,59 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import org.eclipse.lsp4j.Diagnostic;
+
+import java.util.List;
+
+/**
+ * Результат анализа одного файла: данные, которые сенсор сохраняет в контекст SonarQube.
+ * <p>
+ * Может быть как вычислен заново, так и восстановлен из кэша анализа. Подсветка синтаксиса и токены CPD
+ * зависят только от содержимого файла и хранятся в кэше отдельно.
+ *
+ * @param diagnostics Диагностики BSL Language Server
+ * @param measures    Метрики файла
+ */
+public record FileAnalysisResult(List<Diagnostic> diagnostics,
+                                 Measures measures) {
+
+  /**
+   * Метрики файла
+   *
+   * @param ncloc                Количество строк кода
+   * @param statements           Количество операторов
+   * @param functions            Количество методов
+   * @param cognitiveComplexity  Когнитивная сложность
+   * @param cyclomaticComplexity Цикломатическая сложность
+   * @param comments             Количество строк комментариев
+   * @param nclocData            Номера строк кода
+   */
+  public record Measures(int ncloc,
+                         int statements,
+                         int functions,
+                         int cognitiveComplexity,
+                         int cyclomaticComplexity,
+                         int comments,
+                         int[] nclocData) {
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Буфер данных подсветки в виде набора примитивных массивов.
+ * <p>
+ * Элемент буфера - строка, начальная и конечная позиции в строке, тип подсветки и признак активности.
+ * Буфер переиспользуется между файлами одного потока, дубликаты устраняются сортировкой.
+ */
+final class HighlightingBuffer {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /**
+   * Емкость, сверх которой массивы не удерживаются между файлами, чтобы один огромный модуль
+   * не закреплял память за потоком до конца анализа
+   */
+  private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+  private static final TypeOfText[] TYPES_OF_TEXT = TypeOfText.values();
+
+  private int[] lines = new int[INITIAL_CAPACITY];
+  private int[] startChars = new int[INITIAL_CAPACITY];
+  private int[] endChars = new int[INITIAL_CAPACITY];
+  private byte[] types = new byte[INITIAL_CAPACITY];
+  private final BitSet inactive = new BitSet();
+  private int size;
+
+  int size() {
+    return size;
+  }
+
+  int line(int index) {
+    return lines[index];
+  }
+
+  int startChar(int index) {
+    return startChars[index];
+  }
+
+  int endChar(int index) {
+    return endChars[index];
+  }
+
+  TypeOfText type(int index) {
+    return TYPES_OF_TEXT[types[index]];
+  }
+
+  void add(int line, int startChar, int endChar, TypeOfText type) {
+    if (size == lines.length) {
+      grow();
+    }
+    lines[size] = line;
+    startChars[size] = startChar;
+    endChars[size] = endChar;
+    types[size] = (byte) type.ordinal();
+    size++;
+  }
+
+  void deactivate(int index) {
+    inactive.set(index);
+  }
+
+  void clear() {
+    size = 0;
+    inactive.clear();
+    if (lines.length > MAX_RETAINED_CAPACITY) {
+      lines = new int[INITIAL_CAPACITY];
+      startChars = new int[INITIAL_CAPACITY];
+      endChars = new int[INITIAL_CAPACITY];
+      types = new byte[INITIAL_CAPACITY];
+    }
+  }
+
+  /**
+   * Индексы элементов диапазона, отсортированные по строке, началу, концу и типу.
+   * Сортировка устойчивая: среди равных элементов первым остается добавленный раньше.
+   */
+  int[] sortedIndexes(int from, int to) {
+    var indexes = new int[to - from];
+    for (var i = 0; i < indexes.length; i++) {
+      indexes[i] = from + i;
+    }
+    mergeSort(indexes, new int[indexes.length], 0, indexes.length);
+    return indexes;
+  }
+
+  /**
+   * Передает получателю активные элементы без дубликатов в порядке следования в документе.
+   * Из равных элементов учитывается добавленный раньше, в том числе его признак активности.
+   */
+  void forEachActive(Sink sink) {
+    var indexes = sortedIndexes(0, size);
+
+    var previous = -1;
+    for (var index : indexes) {
+      if (previous >= 0 && compare(previous, index) == 0) {
+        continue;
+      }
+      previous = index;
+
+      if (!inactive.get(index)) {
+        sink.accept(lines[index], startChars[index], endChars[index], type(index));
+      }
+    }
+  }
+
+  int compare(int first, int second) {
+    var result = Integer.compare(lines[first], lines[second]);
+    if (result == 0) {
+      result = Integer.compare(startChars[first], startChars[second]);
+    }
+    if (result == 0) {
+      result = Integer.compare(endChars[first], endChars[second]);
+    }
+    if (result == 0) {
+      result = Byte.compare(types[first], types[second]);
+    }
+    return result;
+  }
+
+  private void mergeSort(int[] indexes, int[] buffer, int from, int to) {
+    if (to - from < 2) {
+      return;
+    }
+
+    var middle = (from + to) >>> 1;
+    mergeSort(indexes, buffer, from, middle);
+    mergeSort(indexes, buffer, middle, to);
+
+    if (compare(indexes[middle - 1], indexes[middle]) <= 0) {
+      // уже упорядочено: токены добавляются в порядке следования в документе
+      return;
+    }
+
+    System.arraycopy(indexes, from, buffer, from, to - from);
+    int left = from;
+    int right = middle;
+    for (var i = from; i < to; i++) {
+      if (right >= to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+        indexes[i] = buffer[left++];
+      } else {
+        indexes[i] = buffer[right++];
+      }
+    }
+  }
+
+  /**
+   * Получатель диапазонов подсветки
+   */
+  @FunctionalInterface
+  interface Sink {
+    void accept(int line, int startChar, int endChar, TypeOfText type);
+  }
+
+  private void grow() {
+    var capacity = lines.length * 2;
+    lines = Arrays.copyOf(lines, capacity);
+    startChars = Arrays.copyOf(startChars, capacity);
+    endChars = Arrays.copyOf(endChars, capacity);
+    types = Arrays.copyOf(types, capacity);
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import lombok.experimental.UtilityClass;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+
+/**
+ * Компактное представление подсветки файла в виде потока целых чисел.
+ * <p>
+ * Диапазоны подсветки записываются в {@link RangeStream}, значением диапазона служит тип подсветки.
+ */
+@UtilityClass
+class HighlightingStream {
+
+  static final int[] EMPTY = new int[0];
+  private static final TypeOfText[] TYPES_OF_TEXT = TypeOfText.values();
+
+  /**
+   * Передает получателю диапазоны подсветки, записанные в поток
+   */
+  static void replay(int[] stream, HighlightingBuffer.Sink sink) {
+    RangeStream.decode(stream, (int line, int startChar, int endChar, int type) ->
+      sink.accept(line, startChar, endChar, TYPES_OF_TEXT[type]));
+  }
+
+  /**
+   * Запись диапазонов подсветки в поток
+   */
+  static class Encoder implements HighlightingBuffer.Sink {
+    private final RangeStream.Encoder encoder = new RangeStream.Encoder();
+
+    @Override
+    public void accept(int line, int startChar, int endChar, TypeOfText type) {
+      encoder.add(line, startChar, endChar, type.ordinal());
+    }
+
+    int[] toArray() {
+      return encoder.isEmpty() ? EMPTY : encoder.toArray();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import com.github._1c_syntax.bsl.sonar.language.BSLLanguage;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+
+import javax.annotation.CheckForNull;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс файлов BSL по абсолютному пути и URI.
+ * <p>
+ * Строится один раз за запуск сканера при первом обращении и заменяет поиск по предикатам файловой системы,
+ * который выполнялся для каждого связанного места замечания. Разобранные URI запоминаются.
+ * Индекс файловой системы сканера, полученный через {@link #of(FileSystem)}, общий для всех сенсоров.
+ * Используется только для поиска: порядок обработки файлов задается файловой системой сканера.
+ */
+@Slf4j
+public class InputFileIndex {
+
+  private static final Map<FileSystem, InputFileIndex> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final FileSystem fileSystem;
+  private final Map<String, Optional<InputFile>> filesByUri = new ConcurrentHashMap<>();
+
+  @Getter(value = AccessLevel.PRIVATE, lazy = true)
+  private final Map<Path, InputFile> filesByPath = indexFiles();
+
+  public InputFileIndex(FileSystem fileSystem) {
+    this.fileSystem = fileSystem;
+  }
+
+  /**
+   * Общий индекс файловой системы. Создается при первом обращении любого из сенсоров
+   */
+  public static InputFileIndex of(FileSystem fileSystem) {
+    return INDEXES.computeIfAbsent(fileSystem, InputFileIndex::new);
+  }
+
+  /**
+   * Файл BSL по абсолютному пути
+   */
+  @CheckForNull
+  public InputFile inputFile(Path path) {
+    return getFilesByPath().get(normalize(path));
+  }
+
+  /**
+   * Файл BSL по строковому представлению URI
+   */
+  @CheckForNull
+  public InputFile inputFile(String uri) {
+    return filesByUri.computeIfAbsent(uri, (String key) -> {
+      var path = Path.of(URI.create(key));
+      var inputFile = inputFile(path);
+      if (inputFile == null) {
+        LOGGER.warn("Can't find inputFile for absolute path {}", path.toAbsolutePath());
+      }
+      return Optional.ofNullable(inputFile);
+    }).orElse(null);
+  }
+
+  private Map<Path, InputFile> indexFiles() {
+    var predicates = fileSystem.predicates();
+    Map<Path, InputFile> files = new LinkedHashMap<>();
+    // при совпадении нормализованных путей используется первый файл в порядке сканера
+    fileSystem.inputFiles(predicates.hasLanguage(BSLLanguage.KEY))
+      .forEach(inputFile -> files.merge(normalize(inputFile.path()), inputFile, (first, second) -> first));
+    return Collections.unmodifiableMap(files);
+  }
+
+  private static Path normalize(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+}
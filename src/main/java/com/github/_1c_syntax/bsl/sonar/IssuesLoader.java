@@ -24,21 +24,17 @@ package com.github._1c_syntax.bsl.sonar;
 import com.github._1c_syntax.bsl.languageserver.diagnostics.metadata.DiagnosticCode;
 import com.github._1c_syntax.bsl.sonar.ext_issues.ExternalReporters;
 import com.github._1c_syntax.bsl.sonar.ext_issues.Reporter;
-import com.github._1c_syntax.bsl.sonar.language.BSLLanguage;
 import com.github._1c_syntax.bsl.sonar.language.BSLLanguageServerRuleDefinition;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Value;
-import lombok.extern.slf4j.Slf4j;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticRelatedInformation;
 import org.eclipse.lsp4j.DiagnosticSeverity;
-import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.jetbrains.annotations.NotNull;
-import org.sonar.api.batch.fs.FilePredicates;
-import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.rule.Severity;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
@@ -46,79 +42,51 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rules.RuleType;
 import org.sonar.api.scanner.fs.InputProject;
 
-import javax.annotation.CheckForNull;
-import java.net.URI;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-@Slf4j
+/**
+ * Создание замечаний по диагностикам BSL Language Server и внешних анализаторов.
+ * <p>
+ * Потокобезопасен: изменяемое состояние (таблица правил, индекс файлов, счетчики исправленных диапазонов)
+ * хранится в конкурентных структурах, поэтому один загрузчик используется всеми потоками сенсора.
+ * Границы строк для проверки диапазонов берутся из метаданных файла и не кэшируются.
+ */
 public class IssuesLoader {
   private static final String BSLLS_ENGINE_ID = "bsl-language-server";
 
   private final SensorContext context;
   private final Map<DiagnosticSeverity, Severity> severityMap;
   private final Map<DiagnosticSeverity, RuleType> ruleTypeMap;
-  private final FileSystem fileSystem;
-  private final FilePredicates predicates;
+  private final InputFileIndex inputFileIndex;
+  private final TextRangeResolver textRangeResolver = new TextRangeResolver();
 
   private final Map<String, LoaderSettings> loaderSettings;
 
   public IssuesLoader(SensorContext context) {
+    this(context, InputFileIndex.of(context.fileSystem()));
+  }
+
+  public IssuesLoader(SensorContext context, InputFileIndex inputFileIndex) {
     this.context = context;
-    this.fileSystem = context.fileSystem();
-    this.predicates = fileSystem.predicates();
+    this.inputFileIndex = inputFileIndex;
     this.severityMap = createDiagnosticSeverityMap();
     this.ruleTypeMap = createRuleTypeMap();
 
     this.loaderSettings = computeLoaderSettings(context);
+    warmUpRules();
   }
 
-  private static TextRange getTextRange(InputFile inputFile, Range range, String ruleKey) {
-    var start = range.getStart();
-    var end = range.getEnd();
-    var startLine = start.getLine() + 1;
-
-    TextRange textRange;
-
-    try {
-      textRange = inputFile.newRange(startLine, start.getCharacter(), end.getLine() + 1, end.getCharacter());
-    } catch (IllegalArgumentException e) {
-      var formattedRange = String.format("start(%d, %d), end(%d, %d)",
-        range.getStart().getLine(), range.getStart().getCharacter(),
-        range.getEnd().getLine(), range.getEnd().getCharacter()
-      );
-      LOGGER.error("Can't compute TextRange for given Range: {} of rule: {} in file: {}.",
-        formattedRange, ruleKey, inputFile.uri(), e);
-
-      textRange = selectThisOrPreviousLine(inputFile, startLine);
-    }
-
-    return textRange;
-
-  }
-
-  private static TextRange selectThisOrPreviousLine(InputFile inputFile, int line) {
-    var lines = inputFile.lines();
-
-    if (line == 0) {
-      return inputFile.newRange(1, 0, lines, 0);
-    }
-
-    if (lines >= line) {
-      try {
-        return inputFile.selectLine(line);
-      } catch (IllegalArgumentException e) {
-        LOGGER.error("Can't compute TextRange for given line {}", line, e);
-        lines = line - 1;
-      }
-    }
-    return selectThisOrPreviousLine(inputFile, lines);
+  /**
+   * Выводит в лог сводку диапазонов замечаний, исправленных по содержимому файлов
+   */
+  public void logSummary() {
+    textRangeResolver.logSummary();
   }
 
   private static Map<DiagnosticSeverity, Severity> createDiagnosticSeverityMap() {
@@ -152,6 +120,17 @@ public class IssuesLoader {
     return settings;
   }
 
+  /**
+   * Заполняет таблицу правил активными правилами всех источников, чтобы при создании замечаний
+   * правила уже были разрешены
+   */
+  private void warmUpRules() {
+    var activeRules = context.activeRules();
+    loaderSettings.values().forEach(settings ->
+      activeRules.findByRepository(settings.repositoryKey).forEach(activeRule ->
+        settings.resolve(activeRule.ruleKey().rule(), activeRules)));
+  }
+
   public void createIssue(InputFile file, Diagnostic diagnostic) {
     createIssue(Either.forLeft(file), diagnostic, false);
   }
@@ -170,16 +149,14 @@ public class IssuesLoader {
       settings = loaderSettings.get(BSLLS_ENGINE_ID);
     }
 
-    var ruleKey = RuleKey.of(settings.repositoryKey, ruleId);
-    var activeRule = context.activeRules().find(ruleKey);
-
-    if (settings.needCreateExternalIssues && activeRule == null) {
-      createExternalIssue(settings, fileOrProject, diagnostic);
+    var rule = settings.resolve(ruleId, context.activeRules());
+    if (rule.external()) {
+      createExternalIssue(settings, fileOrProject, diagnostic, ruleId);
       return;
     }
 
     var issue = context.newIssue();
-    issue.forRule(ruleKey);
+    issue.forRule(rule.ruleKey());
     processDiagnostic(fileOrProject,
       diagnostic,
       ruleId,
@@ -203,7 +180,7 @@ public class IssuesLoader {
 
     var location = newIssueLocationSupplier.get();
     if (fileOrProject.isLeft()) {
-      var textRange = getTextRange(fileOrProject.getLeft(), diagnostic.getRange(), ruleId);
+      var textRange = textRangeResolver.textRange(fileOrProject.getLeft(), diagnostic.getRange(), ruleId);
       location.on(fileOrProject.getLeft());
       location.at(textRange);
     } else {
@@ -216,15 +193,14 @@ public class IssuesLoader {
     var relatedInformation = diagnostic.getRelatedInformation();
     if (relatedInformation != null) {
       relatedInformation.forEach((DiagnosticRelatedInformation relatedInformationEntry) -> {
-        var path = Paths.get(URI.create(relatedInformationEntry.getLocation().getUri())).toAbsolutePath();
-        var relatedInputFile = getInputFile(path);
+        var relatedInputFile = inputFileIndex.inputFile(relatedInformationEntry.getLocation().getUri());
         if (relatedInputFile == null) {
-          LOGGER.warn("Can't find inputFile for absolute path {}", path);
           return;
         }
         var relatedIssueLocation = newIssueLocationSupplier.get();
 
-        var relatedTextRange = getTextRange(relatedInputFile, relatedInformationEntry.getLocation().getRange(), ruleId);
+        var relatedTextRange = textRangeResolver.textRange(
+          relatedInputFile, relatedInformationEntry.getLocation().getRange(), ruleId);
 
         relatedIssueLocation.on(relatedInputFile);
         relatedIssueLocation.at(relatedTextRange);
@@ -237,12 +213,11 @@ public class IssuesLoader {
 
   private void createExternalIssue(LoaderSettings settings,
                                    Either<InputFile, InputProject> fileOrProject,
-                                   Diagnostic diagnostic) {
+                                   Diagnostic diagnostic,
+                                   String ruleId) {
     var issue = context.newExternalIssue();
 
     issue.engineId(settings.engineId);
-
-    var ruleId = DiagnosticCode.getStringValue(diagnostic.getCode());
     issue.ruleId(ruleId);
 
     issue.type(ruleTypeMap.get(diagnostic.getSeverity()));
@@ -258,20 +233,14 @@ public class IssuesLoader {
     issue.save();
   }
 
-  @CheckForNull
-  private InputFile getInputFile(Path path) {
-    return fileSystem.inputFile(
-      predicates.and(predicates.hasLanguage(BSLLanguage.KEY),
-        predicates.hasAbsolutePath(path.toAbsolutePath().toString()))
-    );
-  }
-
   @Value
   @AllArgsConstructor
   private static class LoaderSettings {
     String engineId;
     boolean needCreateExternalIssues;
     String repositoryKey;
+    @EqualsAndHashCode.Exclude
+    Map<String, ResolvedRule> resolvedRules = new ConcurrentHashMap<>();
 
     public LoaderSettings(Reporter properties, SensorContext context) {
       engineId = properties.getSource();
@@ -280,5 +249,26 @@ public class IssuesLoader {
         .orElse(properties.isCreateExternalIssuesDefaultValue());
       repositoryKey = properties.getRepositoryKey();
     }
+
+    /**
+     * Правило диагностики источника. Вычисляется один раз для каждого кода диагностики.
+     */
+    ResolvedRule resolve(String ruleId, ActiveRules activeRules) {
+      return resolvedRules.computeIfAbsent(ruleId, (String key) -> {
+        var ruleKey = RuleKey.of(repositoryKey, key);
+        var external = needCreateExternalIssues && activeRules.find(ruleKey) == null;
+        return new ResolvedRule(ruleKey, external);
+      });
+    }
+  }
+
+  /**
+   * Результат разрешения правила для кода диагностики
+   *
+   * @param ruleKey  Ключ правила
+   * @param external Признак создания внешнего замечания: правило не активно,
+   *                 а для источника включено создание внешних замечаний
+   */
+  private record ResolvedRule(RuleKey ruleKey, boolean external) {
   }
 }
@@ -21,41 +21,42 @@
  */
 package com.github._1c_syntax.bsl.sonar;
 
-import com.github._1c_syntax.bsl.languageserver.reporters.data.AnalysisInfo;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.github._1c_syntax.bsl.languageserver.reporters.data.FileInfo;
 import com.github._1c_syntax.bsl.languageserver.reporters.databind.AnalysisInfoJsonMapper;
+import com.github._1c_syntax.bsl.sonar.analysis.AnalysisExecutor;
 import com.github._1c_syntax.bsl.sonar.language.BSLLanguage;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.eclipse.lsp4j.Diagnostic;
-import org.sonar.api.batch.fs.FilePredicates;
-import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonarsource.analyzer.commons.ExternalReportProvider;
 
-import javax.annotation.CheckForNull;
-import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static com.github._1c_syntax.bsl.sonar.BSLCommunityProperties.LANG_SERVER_REPORT_PATH_KEY;
+import static com.github._1c_syntax.bsl.sonar.BSLCommunityProperties.LANG_SERVER_REPORT_THREADS_KEY;
 
 @Slf4j
 public class LanguageServerDiagnosticsLoaderSensor implements Sensor {
 
-  private final SensorContext context;
+  private static final String FILEINFOS_FIELD = "fileinfos";
+  private static final String READER_THREAD_NAME_PREFIX = "bsl-report-reader-";
+  private static final String WORKER_THREAD_NAME_PREFIX = "bsl-report-worker-";
+
+  private final InputFileIndex inputFileIndex;
   private final IssuesLoader issueLoader;
-  private FileSystem fileSystem;
-  private FilePredicates predicates;
 
   public LanguageServerDiagnosticsLoaderSensor(final SensorContext context) {
-    this.context = context;
-    this.issueLoader = new IssuesLoader(context);
+    this.inputFileIndex = InputFileIndex.of(context.fileSystem());
+    this.issueLoader = new IssuesLoader(context, inputFileIndex);
   }
 
   @Override
@@ -67,30 +68,59 @@ public class LanguageServerDiagnosticsLoaderSensor implements Sensor {
   @Override
   public void execute(SensorContext context) {
     var reportFiles = ExternalReportProvider.getReportFiles(context, LANG_SERVER_REPORT_PATH_KEY);
-    reportFiles.forEach(this::parseAndSaveResults);
-  }
+    var threads = AnalysisExecutor.threadsCount(context.config().getInt(LANG_SERVER_REPORT_THREADS_KEY)
+      .orElse(BSLCommunityProperties.LANG_SERVER_REPORT_THREADS_DEFAULT_VALUE));
 
-  private void parseAndSaveResults(File analysisResultsFile) {
-    LOGGER.info("Parsing 'BSL Language Server' analysis results:");
-    LOGGER.info(analysisResultsFile.getAbsolutePath());
+    if (threads == 1 || reportFiles.isEmpty()) {
+      reportFiles.forEach(reportFile -> parseAndSaveResults(reportFile, this::processFileInfo));
+    } else {
+      importInParallel(reportFiles, threads);
+    }
+    issueLoader.logSummary();
+  }
 
-    var analysisInfo = getAnalysisInfo(analysisResultsFile);
-    if (analysisInfo == null || analysisInfo.fileinfos() == null) {
-      return;
+  /**
+   * Параллельный импорт: отчеты читаются отдельными потоками, а замечания каждого элемента отчета
+   * создаются в пуле потоков с ограниченной очередью, поэтому чтение не опережает обработку.
+   * Пулы разделены, чтобы потоки чтения, ожидающие места в очереди, не занимали потоки обработки.
+   */
+  private void importInParallel(List<File> reportFiles, int threads) {
+    LOGGER.info("Importing 'BSL Language Server' reports in {} threads", threads);
+
+    try (var readers = new AnalysisExecutor(Math.min(threads, reportFiles.size()), READER_THREAD_NAME_PREFIX);
+         var workers = new AnalysisExecutor(threads, WORKER_THREAD_NAME_PREFIX)) {
+      reportFiles.forEach(reportFile -> readers.submit(() ->
+        parseAndSaveResults(reportFile, fileInfo -> workers.submit(() -> processFileInfo(fileInfo)))));
+      try {
+        readers.awaitCompletion();
+      } catch (RuntimeException | Error e) {
+        // обработка уже прочитанных элементов дожидается завершения, ее ошибка не скрывает ошибку чтения
+        awaitWorkers(workers, e);
+        throw e;
+      }
+      workers.awaitCompletion();
     }
+  }
 
-    var fileinfos = analysisInfo.fileinfos();
-    for (var fileInfo : fileinfos) {
-      processFileInfo(fileInfo);
+  private static void awaitWorkers(AnalysisExecutor workers, Throwable readersFailure) {
+    try {
+      workers.awaitCompletion();
+    } catch (RuntimeException | Error e) {
+      readersFailure.addSuppressed(e);
     }
   }
 
+  private static void parseAndSaveResults(File analysisResultsFile, Consumer<FileInfo> fileInfoConsumer) {
+    LOGGER.info("Parsing 'BSL Language Server' analysis results:");
+    LOGGER.info(analysisResultsFile.getAbsolutePath());
+
+    readFileInfos(analysisResultsFile, fileInfoConsumer);
+  }
+
   private void processFileInfo(FileInfo fileInfo) {
-    fileSystem = context.fileSystem();
     var path = fileInfo.getPath();
-    predicates = fileSystem.predicates();
 
-    var inputFile = getInputFile(path);
+    var inputFile = inputFileIndex.inputFile(path);
     if (inputFile == null) {
       LOGGER.warn("Can't find inputFile for absolute path {}", path);
       return;
@@ -104,33 +134,32 @@ public class LanguageServerDiagnosticsLoaderSensor implements Sensor {
     issueLoader.createIssue(inputFile, diagnostic);
   }
 
-  @CheckForNull
-  private InputFile getInputFile(Path path) {
-    return fileSystem.inputFile(
-      predicates.and(
-        predicates.hasLanguage(BSLLanguage.KEY),
-        predicates.hasAbsolutePath(path.toAbsolutePath().toString())
-      )
-    );
-  }
-
-  @Nullable
-  private static AnalysisInfo getAnalysisInfo(File analysisResultsFile) {
-
-    String json;
-    try {
-      json = FileUtils.readFileToString(analysisResultsFile, StandardCharsets.UTF_8);
-    } catch (IOException e) {
-      LOGGER.error("Can't read analysis report file", e);
-      return null;
-    }
-
+  /**
+   * Потоковое чтение отчета: элементы {@code fileinfos} читаются и передаются получателю по одному,
+   * поэтому расход памяти не зависит от размера отчета. Остальные поля отчета пропускаются.
+   */
+  private static void readFileInfos(File analysisResultsFile, Consumer<FileInfo> consumer) {
     var objectMapper = new AnalysisInfoJsonMapper();
-    try {
-      return objectMapper.readValue(json, AnalysisInfo.class);
-    } catch (Exception e) {
+    try (var parser = objectMapper.createParser(analysisResultsFile)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Analysis report must be a JSON object");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        var fieldName = parser.currentName();
+        var valueToken = parser.nextToken();
+        if (FILEINFOS_FIELD.equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            consumer.accept(objectMapper.readValue(parser, FileInfo.class));
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } catch (JsonProcessingException e) {
       LOGGER.error("Can't parse analysis report file", e);
-      return null;
+    } catch (IOException e) {
+      LOGGER.error("Can't read analysis report file", e);
     }
   }
 }
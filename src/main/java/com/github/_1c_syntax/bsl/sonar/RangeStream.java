@@ -0,0 +1,96 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+
+/**
+ * Поток однострочных диапазонов в виде последовательности целых чисел.
+ * <p>
+ * Каждый диапазон занимает четыре числа: смещение строки относительно предыдущего диапазона, начальную
+ * позицию (относительно начала предыдущего диапазона той же строки), длину и значение диапазона.
+ * Диапазоны идут в порядке следования в документе, поэтому почти все числа малы и хорошо сжимаются
+ * при сериализации.
+ */
+@UtilityClass
+class RangeStream {
+
+  static final int RANGE_SIZE = 4;
+
+  /**
+   * Передает получателю диапазоны, записанные в поток
+   */
+  static void decode(int[] stream, Sink sink) {
+    var line = 0;
+    var startChar = 0;
+    for (var i = 0; i + RANGE_SIZE <= stream.length; i += RANGE_SIZE) {
+      var lineDelta = stream[i];
+      line += lineDelta;
+      startChar = lineDelta == 0 ? startChar + stream[i + 1] : stream[i + 1];
+      sink.accept(line, startChar, startChar + stream[i + 2], stream[i + 3]);
+    }
+  }
+
+  /**
+   * Получатель диапазонов потока
+   */
+  @FunctionalInterface
+  interface Sink {
+    void accept(int line, int startChar, int endChar, int value);
+  }
+
+  /**
+   * Запись диапазонов в поток. Диапазоны добавляются в порядке следования в документе.
+   */
+  static class Encoder {
+    private int[] stream = new int[RANGE_SIZE * 256];
+    private int size;
+    private int line;
+    private int startChar;
+
+    void add(int line, int startChar, int endChar, int value) {
+      if (size + RANGE_SIZE > stream.length) {
+        stream = Arrays.copyOf(stream, stream.length * 2);
+      }
+
+      var lineDelta = line - this.line;
+      stream[size] = lineDelta;
+      stream[size + 1] = lineDelta == 0 ? startChar - this.startChar : startChar;
+      stream[size + 2] = endChar - startChar;
+      stream[size + 3] = value;
+      size += RANGE_SIZE;
+
+      this.line = line;
+      this.startChar = startChar;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(stream, size);
+    }
+  }
+}
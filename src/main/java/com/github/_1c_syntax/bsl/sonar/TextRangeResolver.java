@@ -0,0 +1,126 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextRange;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Построение диапазонов замечаний с проверкой по границам строк файла.
+ * <p>
+ * Длины строк берутся из метаданных файла, поэтому для каждого диапазона проверяются только его начальная
+ * и конечная строки, а данные о файлах между замечаниями не хранятся.
+ * <p>
+ * Диапазоны, не соответствующие содержимому файла (например, из устаревшего отчета), приводятся к границам
+ * файла и строк без исключений. Если после этого диапазон пуст, выделяется строка целиком, а для диапазона
+ * за концом файла - последняя строка. Исправленные диапазоны подсчитываются по правилу и файлу и выводятся
+ * в лог одной сводкой. Позиция конца файла в LSP (строка после последней, символ 0) исправлением не считается.
+ */
+@Slf4j
+class TextRangeResolver {
+
+  private final Map<String, LongAdder> adjustedRanges = new ConcurrentHashMap<>();
+
+  TextRange textRange(InputFile inputFile, Range range, String ruleKey) {
+    var lines = inputFile.lines();
+
+    var start = range.getStart();
+    var end = range.getEnd();
+    if (start.getLine() >= lines && !isEndOfFile(start, lines)) {
+      countAdjusted(inputFile, ruleKey);
+      return inputFile.selectLine(lines);
+    }
+
+    var startLine = clamp(start.getLine() + 1, 1, lines);
+    var endLine = clamp(end.getLine() + 1, 1, lines);
+    var startChar = character(inputFile, start, startLine, lines);
+    var endChar = character(inputFile, end, endLine, lines);
+
+    if (isAdjusted(start, startLine, startChar, lines) || isAdjusted(end, endLine, endChar, lines)) {
+      countAdjusted(inputFile, ruleKey);
+    }
+
+    if (startLine < endLine || (startLine == endLine && startChar < endChar)) {
+      return inputFile.newRange(startLine, startChar, endLine, endChar);
+    }
+    return inputFile.selectLine(startLine);
+  }
+
+  /**
+   * Выводит в лог количество исправленных диапазонов по правилам и файлам
+   */
+  void logSummary() {
+    if (adjustedRanges.isEmpty()) {
+      return;
+    }
+
+    LOGGER.warn("Issue ranges adjusted to file contents: {}", getAdjustedRanges());
+    new TreeMap<>(adjustedRanges).forEach((String ruleAndFile, LongAdder count) ->
+      LOGGER.warn("  {}: {}", ruleAndFile, count.sum()));
+  }
+
+  /**
+   * Общее количество исправленных диапазонов
+   */
+  long getAdjustedRanges() {
+    return adjustedRanges.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+
+  private void countAdjusted(InputFile inputFile, String ruleKey) {
+    adjustedRanges.computeIfAbsent(ruleKey + " in " + inputFile, key -> new LongAdder()).increment();
+  }
+
+  private static int character(InputFile inputFile, Position position, int line, int lines) {
+    if (isEndOfFile(position, lines)) {
+      return lineLength(inputFile, line);
+    }
+    return clamp(position.getCharacter(), 0, lineLength(inputFile, line));
+  }
+
+  private static boolean isAdjusted(Position position, int line, int character, int lines) {
+    return !isEndOfFile(position, lines)
+      && (line != position.getLine() + 1 || character != position.getCharacter());
+  }
+
+  /**
+   * Позиция сразу после последней строки, которой в LSP обозначается конец файла
+   */
+  private static boolean isEndOfFile(Position position, int lines) {
+    return position.getLine() == lines && position.getCharacter() == 0;
+  }
+
+  private static int lineLength(InputFile inputFile, int line) {
+    return inputFile.selectLine(line).end().lineOffset();
+  }
+
+  private static int clamp(int value, int min, int max) {
+    return Math.max(min, Math.min(value, max));
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Допуск файлов к разбору с учетом бюджета памяти.
+ * <p>
+ * Стоимость разбора файла оценивается по количеству его строк. Файлы допускаются к разбору, пока суммарная
+ * оценка одновременно разбираемых файлов не превышает бюджет. Файл, оценка которого больше бюджета,
+ * занимает весь бюджет и разбирается в одиночку, небольшие файлы разбираются параллельно.
+ * <p>
+ * Ограничение включается явно заданием бюджета: без него файлы допускаются к разбору без ожидания.
+ */
+@Slf4j
+public class AdmissionController {
+
+  /**
+   * Оценка памяти, занимаемой токенами, AST и вторичными данными одной строки модуля. Оценка грубая
+   * и завышенная, поэтому бюджет задается с учетом нее, а не как доля реально свободной памяти.
+   */
+  public static final long ESTIMATED_BYTES_PER_LINE = 16L * 1024;
+  private static final long MIN_ESTIMATED_BYTES = 256L * 1024;
+  private static final int BYTES_PER_PERMIT = 1024;
+
+  private final boolean enabled;
+  private final int budgetPermits;
+  private final Semaphore permits;
+  private final LongAdder delayedFiles = new LongAdder();
+
+  /**
+   * @param budgetBytes Бюджет памяти в байтах. Неположительное значение отключает ограничение
+   */
+  public AdmissionController(long budgetBytes) {
+    enabled = budgetBytes > 0;
+    budgetPermits = Math.clamp(budgetBytes / BYTES_PER_PERMIT, 1, Integer.MAX_VALUE);
+    // честная очередь не дает потоку небольших файлов бесконечно откладывать разбор большого
+    permits = new Semaphore(budgetPermits, true);
+  }
+
+  /**
+   * Бюджет памяти в байтах по значению настройки в мегабайтах. Неположительное значение отключает
+   * ограничение.
+   */
+  public static long budgetBytes(int configuredBudgetMb) {
+    return Math.max(0, configuredBudgetMb) * 1024L * 1024L;
+  }
+
+  /**
+   * Оценка памяти, необходимой для разбора файла
+   */
+  public static long estimateBytes(InputFile inputFile) {
+    return Math.max(MIN_ESTIMATED_BYTES, inputFile.lines() * ESTIMATED_BYTES_PER_LINE);
+  }
+
+  /**
+   * Бюджет памяти в байтах или 0, если ограничение отключено
+   */
+  public long getBudgetBytes() {
+    return enabled ? (long) budgetPermits * BYTES_PER_PERMIT : 0;
+  }
+
+  /**
+   * Ожидает, пока бюджет позволит разобрать файл
+   *
+   * @param inputFile Файл
+   * @return Допуск, который необходимо закрыть по окончании разбора
+   */
+  public Admission admit(InputFile inputFile) {
+    if (!enabled) {
+      return new Admission(0);
+    }
+
+    var required = (int) Math.min(budgetPermits, estimateBytes(inputFile) / BYTES_PER_PERMIT);
+
+    try {
+      // tryAcquire с таймаутом, в отличие от tryAcquire без него, соблюдает очередность ожидающих
+      if (!permits.tryAcquire(required, 0, TimeUnit.SECONDS)) {
+        delayedFiles.increment();
+        LOGGER.debug("Waiting for memory budget to parse {}", inputFile);
+        permits.acquire(required);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for memory budget", e);
+    }
+
+    return new Admission(required);
+  }
+
+  /**
+   * Количество файлов, разбор которых был отложен из-за нехватки бюджета
+   */
+  public long getDelayedFiles() {
+    return delayedFiles.sum();
+  }
+
+  /**
+   * Допуск файла к разбору
+   */
+  public class Admission implements AutoCloseable {
+    private final int acquired;
+    private boolean released;
+
+    private Admission(int acquired) {
+      this.acquired = acquired;
+    }
+
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        if (acquired > 0) {
+          permits.release(acquired);
+        }
+      }
+    }
+  }
+}
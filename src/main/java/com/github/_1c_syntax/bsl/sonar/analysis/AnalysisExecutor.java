@@ -0,0 +1,224 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Выделенный пул потоков анализа с ограниченной очередью задач.
+ * <p>
+ * В отличие от общего {@link java.util.concurrent.ForkJoinPool} количество потоков задается настройкой,
+ * а постановка задачи в заполненную очередь блокирует вызывающий поток.
+ * Собирает статистику глубины очереди и загрузки каждого потока.
+ */
+@Slf4j
+public class AnalysisExecutor implements AutoCloseable {
+
+  private static final String DEFAULT_THREAD_NAME_PREFIX = "bsl-analysis-";
+  private static final int QUEUE_CAPACITY_PER_THREAD = 4;
+
+  private final int threads;
+  private final ThreadPoolExecutor executor;
+  private final Semaphore slots;
+  private final long startTime = System.nanoTime();
+  private final Map<String, LongAdder> busyTimeByThread = new ConcurrentHashMap<>();
+  private final LongAdder completedTasks = new LongAdder();
+  private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+  private final TaskGroup defaultGroup = new TaskGroup();
+
+  public AnalysisExecutor(int threads) {
+    this(threads, DEFAULT_THREAD_NAME_PREFIX);
+  }
+
+  /**
+   * @param threads          Количество потоков
+   * @param threadNamePrefix Префикс имен потоков пула, по которому пулы различаются в дампах потоков
+   */
+  public AnalysisExecutor(int threads, String threadNamePrefix) {
+    this.threads = threads;
+    var queueCapacity = threads * QUEUE_CAPACITY_PER_THREAD;
+    slots = new Semaphore(threads + queueCapacity);
+    executor = new ThreadPoolExecutor(
+      threads,
+      threads,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<>(queueCapacity),
+      new AnalysisThreadFactory(threadNamePrefix)
+    );
+  }
+
+  /**
+   * Количество потоков анализа по значению настройки. Неположительное значение означает
+   * количество доступных процессоров.
+   */
+  public static int threadsCount(int configuredThreads) {
+    if (configuredThreads > 0) {
+      return configuredThreads;
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Ставит задачу в очередь. При заполненной очереди ожидает освобождения места.
+   */
+  public void submit(Runnable task) {
+    defaultGroup.submit(task);
+  }
+
+  /**
+   * Ожидает завершения всех поставленных задач. Пробрасывает первое исключение, возникшее в задачах.
+   */
+  public void awaitCompletion() {
+    defaultGroup.awaitCompletion();
+  }
+
+  /**
+   * Создает группу задач, завершения которой можно ожидать независимо от остальных задач пула.
+   * Используется при одновременной обработке нескольких каталогов исходников.
+   */
+  public TaskGroup newTaskGroup() {
+    return new TaskGroup();
+  }
+
+  /**
+   * Текущее количество задач в очереди
+   */
+  public int queueDepth() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * Выводит в лог статистику глубины очереди и загрузки потоков
+   */
+  public void logStatistics() {
+    var elapsed = System.nanoTime() - startTime;
+    LOGGER.info("Analysis threads: {}, tasks: {}, max queue depth: {}",
+      threads, completedTasks.sum(), maxQueueDepth.get());
+
+    new TreeMap<>(busyTimeByThread).forEach((String threadName, LongAdder busyTime) -> {
+      var busy = busyTime.sum();
+      LOGGER.info("  {}: busy {} ms ({}%)",
+        threadName,
+        Duration.ofNanos(busy).toMillis(),
+        elapsed == 0 ? 0 : busy * 100 / elapsed);
+    });
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Группа задач с собственным ожиданием завершения и собственной ошибкой
+   */
+  public class TaskGroup {
+    private final Phaser pendingTasks = new Phaser(1);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private TaskGroup() {
+    }
+
+    /**
+     * Ставит задачу в очередь. При заполненной очереди ожидает освобождения места.
+     */
+    public void submit(Runnable task) {
+      try {
+        slots.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for analysis queue", e);
+      }
+
+      pendingTasks.register();
+      executor.execute(() -> run(task));
+      maxQueueDepth.accumulate(executor.getQueue().size());
+    }
+
+    /**
+     * Ожидает завершения задач группы. Пробрасывает первое исключение, возникшее в задачах группы.
+     */
+    public void awaitCompletion() {
+      pendingTasks.arriveAndAwaitAdvance();
+
+      var throwable = failure.getAndSet(null);
+      if (throwable instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (throwable instanceof Error error) {
+        throw error;
+      } else if (throwable != null) {
+        throw new IllegalStateException(throwable);
+      }
+    }
+
+    private void run(Runnable task) {
+      var start = System.nanoTime();
+      try {
+        task.run();
+      } catch (Throwable e) { // NOSONAR ошибка пробрасывается в awaitCompletion
+        failure.compareAndSet(null, e);
+      } finally {
+        busyTimeByThread.computeIfAbsent(Thread.currentThread().getName(), key -> new LongAdder())
+          .add(System.nanoTime() - start);
+        completedTasks.increment();
+        slots.release();
+        pendingTasks.arriveAndDeregister();
+      }
+    }
+  }
+
+  private static class AnalysisThreadFactory implements ThreadFactory {
+    private final String threadNamePrefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    AnalysisThreadFactory(String threadNamePrefix) {
+      this.threadNamePrefix = threadNamePrefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      var thread = new Thread(runnable, threadNamePrefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
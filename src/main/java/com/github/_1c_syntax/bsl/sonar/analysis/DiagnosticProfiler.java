@@ -0,0 +1,196 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github._1c_syntax.bsl.languageserver.context.DocumentContext;
+import com.github._1c_syntax.bsl.languageserver.diagnostics.BSLDiagnostic;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Профилирование длительности диагностик BSL LS.
+ * <p>
+ * Регистрируется в контексте приложения BSL LS как {@link BeanPostProcessor} и оборачивает создаваемые
+ * экземпляры диагностик прокси, замеряющим вызовы {@link BSLDiagnostic#getDiagnostics(DocumentContext)}.
+ * Накапливает суммарную длительность, количество вызовов и замечаний, а также самый медленный файл по каждому правилу.
+ */
+@Slf4j
+public class DiagnosticProfiler implements BeanPostProcessor {
+
+  private static final String PROFILED_METHOD = "getDiagnostics";
+
+  private final Map<String, DiagnosticCost> costs = new ConcurrentHashMap<>();
+
+  /**
+   * Подключает профилирование к контексту приложения BSL LS
+   */
+  public void install(ConfigurableApplicationContext applicationContext) {
+    applicationContext.getBeanFactory().addBeanPostProcessor(this);
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!(bean instanceof BSLDiagnostic diagnostic)) {
+      return bean;
+    }
+
+    var proxyFactory = new ProxyFactory(bean);
+    proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+      if (!PROFILED_METHOD.equals(invocation.getMethod().getName())
+        || invocation.getArguments().length != 1
+        || !(invocation.getArguments()[0] instanceof DocumentContext documentContext)) {
+        return invocation.proceed();
+      }
+
+      var start = System.nanoTime();
+      var result = invocation.proceed();
+      var issues = result instanceof Collection<?> collection ? collection.size() : 0;
+      record(diagnostic.getInfo().getCode().getStringValue(), documentContext.getUri().toString(),
+        System.nanoTime() - start, issues);
+      return result;
+    });
+    return proxyFactory.getProxy(bean.getClass().getClassLoader());
+  }
+
+  /**
+   * Учитывает вызов диагностики
+   *
+   * @param diagnosticCode Код диагностики
+   * @param file           Анализируемый файл
+   * @param duration       Длительность в наносекундах
+   * @param issues         Количество найденных замечаний
+   */
+  public void record(String diagnosticCode, String file, long duration, int issues) {
+    costs.computeIfAbsent(diagnosticCode, key -> new DiagnosticCost()).add(file, duration, issues);
+  }
+
+  /**
+   * Формирует отчет, отсортированный по убыванию суммарной длительности
+   */
+  public List<DiagnosticReport> report() {
+    return costs.entrySet().stream()
+      .map(entry -> entry.getValue().report(entry.getKey()))
+      .sorted(Comparator.comparingLong(DiagnosticReport::totalMs).reversed())
+      .toList();
+  }
+
+  /**
+   * Выводит в лог таблицу стоимости диагностик
+   */
+  public void logSummary() {
+    var report = report();
+    if (report.isEmpty()) {
+      return;
+    }
+
+    LOGGER.info("Diagnostics profile:");
+    LOGGER.info(String.format(Locale.ENGLISH, "%-40s %10s %12s %10s %10s %s",
+      "Diagnostic", "Calls", "Total, ms", "Avg, ms", "Issues", "Slowest file"));
+    report.forEach(diagnosticReport -> LOGGER.info(String.format(Locale.ENGLISH, "%-40s %10d %12d %10.2f %10d %s (%d ms)",
+      diagnosticReport.diagnostic(),
+      diagnosticReport.calls(),
+      diagnosticReport.totalMs(),
+      diagnosticReport.avgMs(),
+      diagnosticReport.issues(),
+      diagnosticReport.slowestFile(),
+      diagnosticReport.slowestFileMs())));
+  }
+
+  /**
+   * Записывает отчет в формате JSON
+   *
+   * @param path Путь к файлу отчета
+   */
+  public void writeReport(Path path) {
+    try {
+      new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report());
+      LOGGER.info("Diagnostics profile report: {}", path);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to write diagnostics profile report {}", path, e);
+    }
+  }
+
+  public record DiagnosticReport(
+    String diagnostic,
+    long calls,
+    long totalMs,
+    double avgMs,
+    long issues,
+    String slowestFile,
+    long slowestFileMs
+  ) {
+  }
+
+  private static class DiagnosticCost {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAdder issues = new LongAdder();
+    private String slowestFile = "";
+    private volatile long slowestDuration;
+
+    void add(String file, long duration, int issuesCount) {
+      calls.increment();
+      total.add(duration);
+      issues.add(issuesCount);
+
+      if (duration <= slowestDuration) {
+        return;
+      }
+
+      synchronized (this) {
+        if (duration > slowestDuration) {
+          slowestDuration = duration;
+          slowestFile = file;
+        }
+      }
+    }
+
+    synchronized DiagnosticReport report(String diagnosticCode) {
+      var callsCount = calls.sum();
+      var totalDuration = total.sum();
+      return new DiagnosticReport(
+        diagnosticCode,
+        callsCount,
+        TimeUnit.NANOSECONDS.toMillis(totalDuration),
+        callsCount == 0 ? 0 : totalDuration / 1_000_000.0 / callsCount,
+        issues.sum(),
+        slowestFile,
+        TimeUnit.NANOSECONDS.toMillis(slowestDuration)
+      );
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.batch.fs.FilePredicates;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Правила пропуска подсветки синтаксиса.
+ * <p>
+ * Подсветка не вычисляется и не сохраняется для файлов, которые превышают ограничения по количеству строк
+ * или размеру либо соответствуют шаблонам исключений. Это предназначено для сгенерированных и очень больших модулей,
+ * которые не просматривают в интерфейсе SonarQube.
+ */
+@Slf4j
+public class HighlightingPolicy {
+
+  private final int maxLines;
+  private final long maxBytes;
+  private final String[] exclusions;
+  private final Predicate<InputFile> excluded;
+  private final LongAdder skippedFiles = new LongAdder();
+  private final LongAdder skippedBytes = new LongAdder();
+  // размер файла проверяется на нескольких этапах обработки, а чтение атрибутов файла не бесплатно
+  private final Map<InputFile, Long> sizes = new ConcurrentHashMap<>();
+
+  /**
+   * @param maxLines   Максимальное количество строк подсвечиваемого файла. Неположительное значение
+   *                   снимает ограничение
+   * @param maxSizeKb  Максимальный размер подсвечиваемого файла в килобайтах. Неположительное значение
+   *                   снимает ограничение
+   * @param exclusions Шаблоны путей файлов, для которых подсветка не выполняется
+   * @param predicates Предикаты файловой системы анализа
+   */
+  public HighlightingPolicy(int maxLines, int maxSizeKb, String[] exclusions, FilePredicates predicates) {
+    this.maxLines = maxLines;
+    this.maxBytes = maxSizeKb * 1024L;
+    this.exclusions = Arrays.stream(exclusions)
+      .map(String::strip)
+      .filter(pattern -> !pattern.isEmpty())
+      .toArray(String[]::new);
+
+    if (this.exclusions.length == 0) {
+      excluded = inputFile -> false;
+    } else {
+      excluded = predicates.matchesPathPatterns(this.exclusions)::apply;
+    }
+  }
+
+  /**
+   * Проверяет, нужно ли вычислять и сохранять подсветку файла
+   */
+  public boolean isHighlighted(InputFile inputFile) {
+    return (maxLines <= 0 || inputFile.lines() <= maxLines)
+      && (maxBytes <= 0 || size(inputFile) <= maxBytes)
+      && !excluded.test(inputFile);
+  }
+
+  /**
+   * Учитывает файл, подсветка которого пропущена
+   */
+  public void recordSkipped(InputFile inputFile) {
+    skippedFiles.increment();
+    skippedBytes.add(size(inputFile));
+  }
+
+  /**
+   * Количество файлов, подсветка которых пропущена
+   */
+  public long getSkippedFiles() {
+    return skippedFiles.sum();
+  }
+
+  /**
+   * Суммарный размер файлов, подсветка которых пропущена, в байтах
+   */
+  public long getSkippedBytes() {
+    return skippedBytes.sum();
+  }
+
+  /**
+   * Строковое представление настроек для отпечатка кэша подсветки: подсветка файла,
+   * сохраненная в кэш без учета новых настроек, не должна использоваться после их изменения
+   */
+  public String fingerprint() {
+    return maxLines + "|" + maxBytes + "|" + new TreeSet<>(Arrays.asList(exclusions));
+  }
+
+  public void logSummary() {
+    var files = getSkippedFiles();
+    if (files == 0) {
+      return;
+    }
+    LOGGER.info("Highlighting skipped for {} files ({} KB of sources)", files, getSkippedBytes() / 1024);
+  }
+
+  private long size(InputFile inputFile) {
+    return sizes.computeIfAbsent(inputFile, HighlightingPolicy::readSize);
+  }
+
+  private static long readSize(InputFile inputFile) {
+    try {
+      return Files.size(Path.of(inputFile.uri()));
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Can't get size of {}", inputFile, e);
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Статистика длительности фаз обработки файлов.
+ * <p>
+ * Счетчики фаз собираются из потоков анализа без блокировок, блокировка берется только при попадании
+ * файла в список самых медленных файлов фазы.
+ */
+@Slf4j
+public class PhaseStatistics {
+
+  /**
+   * Количество самых медленных файлов, запоминаемых для каждой фазы
+   */
+  public static final int TOP_FILES_COUNT = 10;
+
+  /**
+   * Фазы обработки
+   */
+  public enum Phase {
+    POPULATE_CONTEXT,
+    CACHE_READ,
+    ADMISSION,
+    CPD_TOKENIZE,
+    PARSE,
+    DIAGNOSTICS,
+    HIGHLIGHTING,
+    MEASURES,
+    CACHE_WRITE,
+    SAVE_ISSUES,
+    SAVE_CPD,
+    SAVE_HIGHLIGHTING,
+    SAVE_MEASURES
+  }
+
+  private final Map<Phase, PhaseCounter> counters = new EnumMap<>(Phase.class);
+
+  public PhaseStatistics() {
+    Arrays.stream(Phase.values()).forEach(phase -> counters.put(phase, new PhaseCounter()));
+  }
+
+  /**
+   * Выполняет действие и учитывает его длительность в фазе
+   *
+   * @param phase  Фаза
+   * @param source Обрабатываемый файл или каталог
+   * @param action Действие
+   * @return Результат действия
+   */
+  public <T> T measure(Phase phase, Object source, Supplier<T> action) {
+    var start = System.nanoTime();
+    try {
+      return action.get();
+    } finally {
+      record(phase, source, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Выполняет действие и учитывает его длительность в фазе
+   *
+   * @param phase  Фаза
+   * @param source Обрабатываемый файл или каталог
+   * @param action Действие
+   */
+  public void measure(Phase phase, Object source, Runnable action) {
+    var start = System.nanoTime();
+    try {
+      action.run();
+    } finally {
+      record(phase, source, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Учитывает длительность фазы
+   *
+   * @param phase    Фаза
+   * @param source   Обрабатываемый файл или каталог
+   * @param duration Длительность в наносекундах
+   */
+  public void record(Phase phase, Object source, long duration) {
+    counters.get(phase).add(source, duration);
+  }
+
+  /**
+   * Формирует отчет по накопленной статистике. Фазы без замеров в отчет не включаются.
+   */
+  public List<PhaseReport> report() {
+    return counters.entrySet().stream()
+      .filter(entry -> entry.getValue().count.sum() > 0)
+      .map(entry -> entry.getValue().report(entry.getKey()))
+      .toList();
+  }
+
+  /**
+   * Выводит в лог таблицу длительности фаз, самые медленные файлы выводятся в режиме отладки
+   */
+  public void logSummary() {
+    var report = report();
+    if (report.isEmpty()) {
+      return;
+    }
+
+    LOGGER.info(String.format(Locale.ENGLISH, "%-20s %10s %12s %10s %10s", "Phase", "Count", "Total, ms", "Avg, ms", "Max, ms"));
+    report.forEach(phaseReport -> LOGGER.info(String.format(Locale.ENGLISH, "%-20s %10d %12d %10.2f %10d",
+      phaseReport.phase(),
+      phaseReport.count(),
+      phaseReport.totalMs(),
+      phaseReport.avgMs(),
+      phaseReport.maxMs())));
+
+    if (LOGGER.isDebugEnabled()) {
+      report.forEach(phaseReport -> {
+        LOGGER.debug("Slowest in {}:", phaseReport.phase());
+        phaseReport.slowest().forEach(file -> LOGGER.debug("  {} ms: {}", file.ms(), file.source()));
+      });
+    }
+  }
+
+  /**
+   * Записывает отчет в формате JSON
+   *
+   * @param path Путь к файлу отчета
+   */
+  public void writeReport(Path path) {
+    try {
+      new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), new Report(report()));
+      LOGGER.info("Analysis statistics report: {}", path);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to write analysis statistics report {}", path, e);
+    }
+  }
+
+  public record Report(List<PhaseReport> phases) {
+  }
+
+  public record PhaseReport(Phase phase, long count, long totalMs, double avgMs, long maxMs, List<SlowSource> slowest) {
+  }
+
+  public record SlowSource(String source, long ms) {
+  }
+
+  private static class PhaseCounter {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // минимальная длительность среди запомненных медленных файлов, чтобы не брать блокировку для быстрых
+    private volatile long slowestThreshold;
+    private final PriorityQueue<SlowEntry> slowest = new PriorityQueue<>(
+      TOP_FILES_COUNT + 1,
+      Comparator.comparingLong(SlowEntry::duration)
+    );
+
+    void add(Object source, long duration) {
+      count.increment();
+      total.add(duration);
+      max.accumulate(duration);
+
+      if (duration <= slowestThreshold) {
+        return;
+      }
+
+      synchronized (slowest) {
+        slowest.add(new SlowEntry(source, duration));
+        if (slowest.size() > TOP_FILES_COUNT) {
+          slowest.poll();
+          slowestThreshold = slowest.element().duration();
+        }
+      }
+    }
+
+    PhaseReport report(Phase phase) {
+      var phaseCount = count.sum();
+      var phaseTotal = total.sum();
+
+      List<SlowSource> slowSources;
+      synchronized (slowest) {
+        slowSources = slowest.stream()
+          .sorted(Comparator.comparingLong(SlowEntry::duration).reversed())
+          .map(entry -> new SlowSource(entry.source().toString(), TimeUnit.NANOSECONDS.toMillis(entry.duration())))
+          .toList();
+      }
+
+      return new PhaseReport(
+        phase,
+        phaseCount,
+        TimeUnit.NANOSECONDS.toMillis(phaseTotal),
+        phaseCount == 0 ? 0 : phaseTotal / 1_000_000.0 / phaseCount,
+        TimeUnit.NANOSECONDS.toMillis(max.get()),
+        slowSources
+      );
+    }
+  }
+
+  private record SlowEntry(Object source, long duration) {
+  }
+}
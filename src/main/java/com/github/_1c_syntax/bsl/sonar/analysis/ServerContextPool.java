@@ -0,0 +1,120 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.github._1c_syntax.bsl.languageserver.BSLLSBinding;
+import com.github._1c_syntax.bsl.languageserver.context.ServerContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Набор изолированных контекстов BSL LS для одновременной обработки нескольких каталогов исходников.
+ * <p>
+ * Первый контекст - общий контекст {@link BSLLSBinding}. Остальные создаются отдельными контекстами приложения
+ * с тем же окружением, поэтому контексты документов и метаданные разных каталогов не пересекаются.
+ * Дополнительные контексты настраиваются переданным обработчиком (конфигурация BSL LS, профилирование).
+ */
+@Slf4j
+public class ServerContextPool implements AutoCloseable {
+
+  private final List<ConfigurableApplicationContext> isolatedContexts = new ArrayList<>();
+  private final BlockingQueue<ServerContext> serverContexts;
+
+  /**
+   * @param size         Количество контекстов
+   * @param configurator Обработчик, настраивающий дополнительный контекст приложения BSL LS
+   */
+  public ServerContextPool(int size, Consumer<ConfigurableApplicationContext> configurator) {
+    serverContexts = new ArrayBlockingQueue<>(size);
+    serverContexts.add(BSLLSBinding.getServerContext());
+
+    for (var i = 1; i < size; i++) {
+      LOGGER.debug("Creating isolated BSL LS context {}", i);
+      var applicationContext = createApplicationContext();
+      isolatedContexts.add(applicationContext);
+      configurator.accept(applicationContext);
+      serverContexts.add(applicationContext.getBean(ServerContext.class));
+    }
+  }
+
+  /**
+   * Количество одновременно обрабатываемых каталогов по значению настройки и количеству каталогов.
+   * Неположительное значение означает количество доступных процессоров.
+   */
+  public static int size(int configuredConcurrency, int sourceDirs) {
+    var concurrency = configuredConcurrency > 0
+      ? configuredConcurrency
+      : Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(concurrency, sourceDirs));
+  }
+
+  /**
+   * Получает свободный контекст. При отсутствии свободных контекстов ожидает освобождения.
+   */
+  public ServerContext acquire() {
+    try {
+      return serverContexts.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for BSL LS context", e);
+    }
+  }
+
+  /**
+   * Возвращает контекст в набор. Контекст должен быть предварительно очищен.
+   */
+  public void release(ServerContext serverContext) {
+    serverContexts.add(serverContext);
+  }
+
+  @Override
+  public void close() {
+    // общий контекст закрывается сенсором
+    isolatedContexts.forEach(ConfigurableApplicationContext::close);
+    isolatedContexts.clear();
+  }
+
+  private static ConfigurableApplicationContext createApplicationContext() {
+    var sharedEnvironment = BSLLSBinding.getApplicationContext().getEnvironment();
+    var environment = new StandardEnvironment();
+    environment.setActiveProfiles(sharedEnvironment.getActiveProfiles());
+    sharedEnvironment.getPropertySources().forEach(environment.getPropertySources()::addLast);
+
+    return new SpringApplicationBuilder(BSLLSBinding.class)
+      .environment(environment)
+      .bannerMode(Banner.Mode.OFF)
+      .web(WebApplicationType.NONE)
+      .logStartupInfo(false)
+      .registerShutdownHook(false)
+      .run();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import org.sonar.api.batch.fs.InputFile;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Порядок постановки файлов в очередь анализа
+ */
+public enum WorkOrdering {
+
+  /**
+   * Порядок, в котором файлы возвращает файловая система сканера
+   */
+  DEFAULT,
+
+  /**
+   * Сначала самые дорогие файлы, чтобы долгий анализ большого модуля не начинался последним
+   * и не задерживал завершение анализа
+   */
+  LARGEST_FIRST;
+
+  /**
+   * Упорядочивает файлы
+   *
+   * @param inputFiles Файлы
+   * @param durations  Длительности анализа файлов в предыдущем запуске (в миллисекундах) по ключам файлов
+   * @return Упорядоченный список файлов
+   */
+  public List<InputFile> order(List<InputFile> inputFiles, Map<String, Long> durations) {
+    if (this == DEFAULT) {
+      return inputFiles;
+    }
+
+    // для файлов без истории длительность оценивается по количеству строк
+    // и средней длительности анализа строки файлов с историей
+    long knownDuration = 0;
+    long knownLines = 0;
+    for (var inputFile : inputFiles) {
+      var duration = durations.get(inputFile.key());
+      if (duration != null) {
+        knownDuration += duration;
+        knownLines += inputFile.lines();
+      }
+    }
+    var durationPerLine = knownDuration > 0 && knownLines > 0 ? (double) knownDuration / knownLines : 1.0;
+
+    Map<InputFile, Double> costs = new IdentityHashMap<>(inputFiles.size());
+    for (var inputFile : inputFiles) {
+      var duration = durations.get(inputFile.key());
+      costs.put(inputFile, duration != null ? duration : inputFile.lines() * durationPerLine);
+    }
+
+    return inputFiles.stream()
+      .sorted(Comparator.comparingDouble((InputFile inputFile) -> costs.get(inputFile)).reversed())
+      .toList();
+  }
+}
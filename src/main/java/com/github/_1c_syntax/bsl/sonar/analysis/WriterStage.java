@@ -0,0 +1,121 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Стадия сохранения результатов анализа в отдельных потоках записи.
+ * <p>
+ * Потоки анализа передают готовые неизменяемые порции данных потокам записи и не выполняют запись сами.
+ * Вызывающий поток блокируется, только если в очереди уже накоплено максимальное количество порций.
+ * Стадия с одним потоком записи подходит для хранилищ, не допускающих одновременных вызовов.
+ * Потоки записи создаются при первых порциях и завершаются после простоя.
+ */
+public class WriterStage {
+
+  private static final long KEEP_ALIVE_SECONDS = 1;
+  private static final int ANALYSIS_THREADS_PER_WRITER = 4;
+
+  private final ThreadPoolExecutor executor;
+  private final Semaphore slots;
+  private final Phaser pendingTasks = new Phaser(1);
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * @param threadNamePrefix Префикс имени потоков записи
+   * @param threads          Количество потоков записи
+   * @param capacity         Максимальное количество ожидающих записи порций
+   */
+  public WriterStage(String threadNamePrefix, int threads, int capacity) {
+    slots = new Semaphore(capacity);
+    var counter = new AtomicInteger();
+    executor = new ThreadPoolExecutor(
+      threads,
+      threads,
+      KEEP_ALIVE_SECONDS,
+      TimeUnit.SECONDS,
+      new LinkedBlockingQueue<>(),
+      (Runnable runnable) -> {
+        var thread = new Thread(runnable, threadNamePrefix + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    );
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Количество потоков записи результатов для заданного количества потоков анализа
+   */
+  public static int writersCount(int analysisThreads) {
+    return Math.max(1, analysisThreads / ANALYSIS_THREADS_PER_WRITER);
+  }
+
+  /**
+   * Ставит запись в очередь. При заполненной очереди ожидает освобождения места.
+   */
+  public void submit(Runnable write) {
+    try {
+      slots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for write queue", e);
+    }
+
+    pendingTasks.register();
+    executor.execute(() -> run(write));
+  }
+
+  /**
+   * Ожидает выполнения всех поставленных записей. Пробрасывает первое исключение, возникшее при записи.
+   */
+  public void awaitCompletion() {
+    pendingTasks.arriveAndAwaitAdvance();
+
+    var throwable = failure.getAndSet(null);
+    if (throwable instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    } else if (throwable instanceof Error error) {
+      throw error;
+    } else if (throwable != null) {
+      throw new IllegalStateException(throwable);
+    }
+  }
+
+  private void run(Runnable write) {
+    try {
+      write.run();
+    } catch (Throwable e) { // NOSONAR ошибка пробрасывается в awaitCompletion
+      failure.compareAndSet(null, e);
+    } finally {
+      slots.release();
+      pendingTasks.arriveAndDeregister();
+    }
+  }
+}
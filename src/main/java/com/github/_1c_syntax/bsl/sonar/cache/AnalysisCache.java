@@ -0,0 +1,143 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Хранилище результатов анализа файлов между запусками сканера
+ */
+public interface AnalysisCache {
+
+  /**
+   * Возвращает сохраненный результат анализа файла, если файл и настройки анализа не изменились
+   *
+   * @param inputFile Анализируемый файл
+   * @return Результат анализа из кэша
+   */
+  Optional<FileAnalysisResult> read(InputFile inputFile);
+
+  /**
+   * Сохраняет результат анализа файла для следующего запуска
+   *
+   * @param inputFile Анализируемый файл
+   * @param result    Результат анализа
+   */
+  void write(InputFile inputFile, FileAnalysisResult result);
+
+  /**
+   * Возвращает сохраненную подсветку файла, если содержимое файла не изменилось.
+   * <p>
+   * Подсветка не зависит от настроек анализа и профиля качества, поэтому переиспользуется
+   * и тогда, когда результат анализа файла приходится вычислять заново.
+   *
+   * @param inputFile Анализируемый файл
+   * @return Подсветка в виде потока целых чисел
+   */
+  default Optional<int[]> readHighlighting(InputFile inputFile) {
+    return Optional.empty();
+  }
+
+  /**
+   * Сохраняет подсветку файла для следующего запуска
+   *
+   * @param inputFile    Анализируемый файл
+   * @param highlighting Подсветка в виде потока целых чисел
+   */
+  default void writeHighlighting(InputFile inputFile, int[] highlighting) {
+    // nothing to store by default
+  }
+
+  /**
+   * Возвращает сохраненные токены CPD файла, если содержимое файла и правила отбора токенов не изменились
+   *
+   * @param inputFile Анализируемый файл
+   * @return Токены CPD
+   */
+  default Optional<CpdTokenStream> readCpdTokens(InputFile inputFile) {
+    return Optional.empty();
+  }
+
+  /**
+   * Сохраняет токены CPD файла для следующего запуска
+   *
+   * @param inputFile Анализируемый файл
+   * @param cpdTokens Токены CPD
+   */
+  default void writeCpdTokens(InputFile inputFile, CpdTokenStream cpdTokens) {
+    // nothing to store by default
+  }
+
+  /**
+   * Возвращает длительности анализа файлов из предыдущего запуска
+   *
+   * @return Длительности анализа в миллисекундах по ключам файлов
+   */
+  default Map<String, Long> readDurations() {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Сохраняет длительности анализа файлов для планирования следующего запуска
+   *
+   * @param durations Длительности анализа в миллисекундах по ключам файлов
+   */
+  default void writeDurations(Map<String, Long> durations) {
+    // nothing to store by default
+  }
+
+  /**
+   * Удаляет записи файлов, к которым не было обращений в текущем запуске.
+   * <p>
+   * Вызывается после успешного анализа всех файлов, чтобы кэш не рос за счет удаленных и переименованных файлов.
+   */
+  default void removeStaleEntries() {
+    // nothing to remove by default
+  }
+
+  /**
+   * Кэш, не хранящий ничего
+   */
+  static AnalysisCache disabled() {
+    return DisabledAnalysisCache.INSTANCE;
+  }
+
+  enum DisabledAnalysisCache implements AnalysisCache {
+    INSTANCE;
+
+    @Override
+    public Optional<FileAnalysisResult> read(InputFile inputFile) {
+      return Optional.empty();
+    }
+
+    @Override
+    public void write(InputFile inputFile, FileAnalysisResult result) {
+      // nothing to store
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.languageserver.configuration.LanguageServerConfiguration;
+import com.github._1c_syntax.bsl.languageserver.context.DocumentContext;
+import com.github._1c_syntax.bsl.parser.BSLTokenizer;
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.analysis.HighlightingPolicy;
+import lombok.experimental.UtilityClass;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Отпечаток настроек, влияющих на результат анализа файла.
+ * <p>
+ * Меняется при смене версии плагина или BSL LS, настроек BSL LS, состава и параметров активных правил
+ * или метаданных конфигурации: диагностики, использующие метаданные, не должны восстанавливаться из кэша
+ * после их изменения.
+ */
+@UtilityClass
+public class AnalysisFingerprint {
+
+  public static String compute(LanguageServerConfiguration configuration,
+                               boolean langServerEnabled,
+                               ActiveRules activeRules,
+                               String metadataFingerprint) {
+    var diagnosticsOptions = configuration.getDiagnosticsOptions();
+    var subsystemsFilter = diagnosticsOptions.getSubsystemsFilter();
+
+    var fingerprint = new StringBuilder()
+      .append(version(AnalysisFingerprint.class)).append('|')
+      .append(version(DocumentContext.class)).append('|')
+      .append(langServerEnabled).append('|')
+      .append(configuration.getLanguage()).append('|')
+      .append(diagnosticsOptions.getSkipSupport()).append('|')
+      .append(new TreeSet<>(subsystemsFilter.getInclude())).append('|')
+      .append(new TreeSet<>(subsystemsFilter.getExclude())).append('|')
+      .append(metadataFingerprint).append('|');
+
+    new TreeMap<>(diagnosticsOptions.getParameters()).forEach(
+      (String diagnosticCode, Either<Boolean, Map<String, Object>> parameters) -> {
+        fingerprint.append(diagnosticCode).append('=');
+        if (parameters.isLeft()) {
+          fingerprint.append(parameters.getLeft());
+        } else {
+          fingerprint.append(new TreeMap<>(parameters.getRight()));
+        }
+        fingerprint.append(';');
+      });
+    fingerprint.append('|');
+
+    activeRules.findAll().stream()
+      .sorted(Comparator.comparing((ActiveRule activeRule) -> activeRule.ruleKey().toString()))
+      .forEach((ActiveRule activeRule) -> fingerprint
+        .append(activeRule.ruleKey()).append('=')
+        .append(activeRule.severity())
+        .append(new TreeMap<>(activeRule.params()))
+        .append(';'));
+
+    return ContentHashes.sha256(fingerprint.toString());
+  }
+
+  /**
+   * Отпечаток подсветки синтаксиса. Подсветка зависит только от содержимого файла и алгоритма разбора,
+   * поэтому отпечаток меняется только при смене версии плагина или BSL LS и правил пропуска подсветки.
+   */
+  public static String highlighting(HighlightingPolicy highlightingPolicy) {
+    return ContentHashes.sha256(version(AnalysisFingerprint.class) + '|' + version(DocumentContext.class)
+      + '|' + highlightingPolicy.fingerprint());
+  }
+
+  /**
+   * Отпечаток токенов CPD. Токены зависят только от содержимого файла, лексера и правил отбора токенов.
+   */
+  public static String cpd() {
+    return ContentHashes.sha256(version(AnalysisFingerprint.class) + '|' + version(BSLTokenizer.class)
+      + '|' + CpdTokenStream.RULES_VERSION);
+  }
+
+  /**
+   * Отпечаток метаданных конфигураций: хэш путей и содержимого всех файлов каталогов конфигураций,
+   * кроме модулей. Модули учитываются хэшем содержимого каждого файла.
+   *
+   * @param configurationRoots Корневые каталоги конфигураций
+   */
+  public static String metadata(Collection<Path> configurationRoots) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    configurationRoots.stream().sorted().distinct().forEach((Path root) -> {
+      digest.update(root.toString().getBytes(StandardCharsets.UTF_8));
+      try (var files = Files.walk(root)) {
+        files
+          .filter(Files::isRegularFile)
+          .filter(file -> !isModule(file))
+          .sorted()
+          .forEachOrdered(file -> updateDigest(digest, root, file));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Can't read configuration metadata in " + root, e);
+      }
+    });
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void updateDigest(MessageDigest digest, Path root, Path file) {
+    digest.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+    try (var output = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+      Files.copy(file, output);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't read configuration metadata file " + file, e);
+    }
+  }
+
+  private static boolean isModule(Path file) {
+    var fileName = file.getFileName().toString().toLowerCase(Locale.ENGLISH);
+    return fileName.endsWith(".bsl") || fileName.endsWith(".os");
+  }
+
+  private static String version(Class<?> clazz) {
+    return Objects.toString(clazz.getPackage().getImplementationVersion(), "");
+  }
+}
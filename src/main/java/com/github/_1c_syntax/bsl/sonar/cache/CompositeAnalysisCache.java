@@ -0,0 +1,121 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Последовательный опрос нескольких кэшей.
+ * <p>
+ * Результат, найденный в одном из кэшей, дописывается в опрошенные до него кэши, в которых его не оказалось.
+ */
+public class CompositeAnalysisCache implements AnalysisCache {
+
+  private final List<AnalysisCache> caches;
+
+  public CompositeAnalysisCache(List<AnalysisCache> caches) {
+    this.caches = List.copyOf(caches);
+  }
+
+  @Override
+  public Optional<FileAnalysisResult> read(InputFile inputFile) {
+    for (var i = 0; i < caches.size(); i++) {
+      var result = caches.get(i).read(inputFile);
+      if (result.isPresent()) {
+        for (var j = 0; j < i; j++) {
+          caches.get(j).write(inputFile, result.get());
+        }
+        return result;
+      }
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public void write(InputFile inputFile, FileAnalysisResult result) {
+    caches.forEach(cache -> cache.write(inputFile, result));
+  }
+
+  @Override
+  public Optional<int[]> readHighlighting(InputFile inputFile) {
+    for (var i = 0; i < caches.size(); i++) {
+      var highlighting = caches.get(i).readHighlighting(inputFile);
+      if (highlighting.isPresent()) {
+        for (var j = 0; j < i; j++) {
+          caches.get(j).writeHighlighting(inputFile, highlighting.get());
+        }
+        return highlighting;
+      }
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public void writeHighlighting(InputFile inputFile, int[] highlighting) {
+    caches.forEach(cache -> cache.writeHighlighting(inputFile, highlighting));
+  }
+
+  @Override
+  public Optional<CpdTokenStream> readCpdTokens(InputFile inputFile) {
+    for (var i = 0; i < caches.size(); i++) {
+      var cpdTokens = caches.get(i).readCpdTokens(inputFile);
+      if (cpdTokens.isPresent()) {
+        for (var j = 0; j < i; j++) {
+          caches.get(j).writeCpdTokens(inputFile, cpdTokens.get());
+        }
+        return cpdTokens;
+      }
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public void writeCpdTokens(InputFile inputFile, CpdTokenStream cpdTokens) {
+    caches.forEach(cache -> cache.writeCpdTokens(inputFile, cpdTokens));
+  }
+
+  @Override
+  public Map<String, Long> readDurations() {
+    return caches.stream()
+      .map(AnalysisCache::readDurations)
+      .filter(durations -> !durations.isEmpty())
+      .findFirst()
+      .orElse(Collections.emptyMap());
+  }
+
+  @Override
+  public void writeDurations(Map<String, Long> durations) {
+    caches.forEach(cache -> cache.writeDurations(durations));
+  }
+
+  @Override
+  public void removeStaleEntries() {
+    caches.forEach(AnalysisCache::removeStaleEntries);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.batch.fs.InputFile;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хэши содержимого файлов, вычисляемые один раз за запуск анализа
+ */
+@Slf4j
+public class ContentHashes {
+
+  private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+  /**
+   * Возвращает хэш содержимого файла
+   *
+   * @param inputFile Файл
+   * @return Хэш в виде hex-строки или null, если файл не удалось прочитать
+   */
+  @CheckForNull
+  public String get(InputFile inputFile) {
+    var key = inputFile.key();
+    var hash = hashes.get(key);
+    if (hash == null) {
+      hash = compute(inputFile);
+      if (hash != null) {
+        hashes.put(key, hash);
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Вычисляет SHA-256 от строки
+   *
+   * @param value Строка
+   * @return Хэш в виде hex-строки
+   */
+  public static String sha256(String value) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @CheckForNull
+  private static String compute(InputFile inputFile) {
+    try {
+      return sha256(inputFile.contents());
+    } catch (IOException e) {
+      LOGGER.warn("Can't read file {} to compute its hash", inputFile, e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.languageserver.diagnostics.metadata.DiagnosticCode;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult;
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult.Measures;
+import lombok.experimental.UtilityClass;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticRelatedInformation;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бинарная сериализация результата анализа файла
+ */
+@UtilityClass
+public class FileAnalysisResultSerializer {
+
+  public static void write(DataOutput output, FileAnalysisResult result) throws IOException {
+    writeDiagnostics(output, result.diagnostics());
+    writeMeasures(output, result.measures());
+  }
+
+  public static FileAnalysisResult read(DataInput input) throws IOException {
+    var diagnostics = readDiagnostics(input);
+    var measures = readMeasures(input);
+    return new FileAnalysisResult(diagnostics, measures);
+  }
+
+  /**
+   * Записывает поток подсветки: числа кодируются переменной длиной, поэтому малые разности позиций
+   * занимают по одному байту
+   */
+  public static void writeHighlighting(DataOutput output, int[] highlighting) throws IOException {
+    writeIntStream(output, highlighting);
+  }
+
+  public static int[] readHighlighting(DataInput input) throws IOException {
+    return readIntStream(input);
+  }
+
+  /**
+   * Записывает токены CPD: таблицу текстов токенов и поток чисел переменной длины
+   */
+  public static void writeCpdTokens(DataOutput output, CpdTokenStream cpdTokens) throws IOException {
+    var images = cpdTokens.images();
+    writeVarInt(output, images.length);
+    for (var image : images) {
+      writeString(output, image);
+    }
+    writeIntStream(output, cpdTokens.tokens());
+  }
+
+  public static CpdTokenStream readCpdTokens(DataInput input) throws IOException {
+    var images = new String[readVarInt(input)];
+    for (var i = 0; i < images.length; i++) {
+      images[i] = readString(input);
+    }
+    return new CpdTokenStream(readIntStream(input), images);
+  }
+
+  public static void writeDurations(DataOutput output, Map<String, Long> durations) throws IOException {
+    output.writeInt(durations.size());
+    for (var entry : durations.entrySet()) {
+      writeString(output, entry.getKey());
+      output.writeLong(entry.getValue());
+    }
+  }
+
+  public static Map<String, Long> readDurations(DataInput input) throws IOException {
+    var size = input.readInt();
+    Map<String, Long> durations = HashMap.newHashMap(size);
+    for (var i = 0; i < size; i++) {
+      durations.put(readString(input), input.readLong());
+    }
+    return durations;
+  }
+
+  public static void writeString(DataOutput output, @Nullable String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  @CheckForNull
+  public static String readString(DataInput input) throws IOException {
+    var length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+    var bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeDiagnostics(DataOutput output, List<Diagnostic> diagnostics) throws IOException {
+    output.writeInt(diagnostics.size());
+    for (var diagnostic : diagnostics) {
+      writeRange(output, diagnostic.getRange());
+      var severity = diagnostic.getSeverity();
+      output.writeByte(severity == null ? 0 : severity.getValue());
+      writeString(output, diagnostic.getCode() == null ? null : DiagnosticCode.getStringValue(diagnostic.getCode()));
+      writeString(output, diagnostic.getSource());
+      writeString(output, diagnostic.getMessage());
+
+      var relatedInformation = diagnostic.getRelatedInformation();
+      if (relatedInformation == null) {
+        output.writeInt(-1);
+        continue;
+      }
+      output.writeInt(relatedInformation.size());
+      for (var relatedInformationEntry : relatedInformation) {
+        var location = relatedInformationEntry.getLocation();
+        writeString(output, location.getUri());
+        writeRange(output, location.getRange());
+        writeString(output, relatedInformationEntry.getMessage());
+      }
+    }
+  }
+
+  private static List<Diagnostic> readDiagnostics(DataInput input) throws IOException {
+    var size = input.readInt();
+    List<Diagnostic> diagnostics = new ArrayList<>(size);
+    for (var i = 0; i < size; i++) {
+      var diagnostic = new Diagnostic();
+      diagnostic.setRange(readRange(input));
+      var severity = input.readByte();
+      if (severity != 0) {
+        diagnostic.setSeverity(DiagnosticSeverity.forValue(severity));
+      }
+      var code = readString(input);
+      if (code != null) {
+        diagnostic.setCode(code);
+      }
+      diagnostic.setSource(readString(input));
+      diagnostic.setMessage(readString(input));
+
+      var relatedInformationSize = input.readInt();
+      if (relatedInformationSize >= 0) {
+        List<DiagnosticRelatedInformation> relatedInformation = new ArrayList<>(relatedInformationSize);
+        for (var j = 0; j < relatedInformationSize; j++) {
+          var uri = readString(input);
+          var range = readRange(input);
+          var message = readString(input);
+          relatedInformation.add(new DiagnosticRelatedInformation(new Location(uri, range), message));
+        }
+        diagnostic.setRelatedInformation(relatedInformation);
+      }
+      diagnostics.add(diagnostic);
+    }
+    return diagnostics;
+  }
+
+  private static void writeMeasures(DataOutput output, Measures measures) throws IOException {
+    output.writeInt(measures.ncloc());
+    output.writeInt(measures.statements());
+    output.writeInt(measures.functions());
+    output.writeInt(measures.cognitiveComplexity());
+    output.writeInt(measures.cyclomaticComplexity());
+    output.writeInt(measures.comments());
+    var nclocData = measures.nclocData();
+    output.writeInt(nclocData.length);
+    for (var line : nclocData) {
+      output.writeInt(line);
+    }
+  }
+
+  private static Measures readMeasures(DataInput input) throws IOException {
+    var ncloc = input.readInt();
+    var statements = input.readInt();
+    var functions = input.readInt();
+    var cognitiveComplexity = input.readInt();
+    var cyclomaticComplexity = input.readInt();
+    var comments = input.readInt();
+    var nclocData = new int[input.readInt()];
+    for (var i = 0; i < nclocData.length; i++) {
+      nclocData[i] = input.readInt();
+    }
+    return new Measures(ncloc, statements, functions, cognitiveComplexity, cyclomaticComplexity, comments, nclocData);
+  }
+
+  private static void writeIntStream(DataOutput output, int[] values) throws IOException {
+    writeVarInt(output, values.length);
+    for (var value : values) {
+      // zigzag: небольшие отрицательные значения тоже кодируются коротко
+      writeVarInt(output, (value << 1) ^ (value >> 31));
+    }
+  }
+
+  private static int[] readIntStream(DataInput input) throws IOException {
+    var values = new int[readVarInt(input)];
+    for (var i = 0; i < values.length; i++) {
+      var value = readVarInt(input);
+      values[i] = (value >>> 1) ^ -(value & 1);
+    }
+    return values;
+  }
+
+  private static void writeVarInt(DataOutput output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  private static int readVarInt(DataInput input) throws IOException {
+    var value = 0;
+    for (var shift = 0; shift < Integer.SIZE; shift += 7) {
+      var b = input.readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable-length integer");
+  }
+
+  private static void writeRange(DataOutput output, Range range) throws IOException {
+    output.writeInt(range.getStart().getLine());
+    output.writeInt(range.getStart().getCharacter());
+    output.writeInt(range.getEnd().getLine());
+    output.writeInt(range.getEnd().getCharacter());
+  }
+
+  private static Range readRange(DataInput input) throws IOException {
+    var start = new Position(input.readInt(), input.readInt());
+    var end = new Position(input.readInt(), input.readInt());
+    return new Range(start, end);
+  }
+
+  /**
+   * Чтение содержимого записи кэша
+   */
+  @FunctionalInterface
+  interface EntryReader<T> {
+    T read(DataInput input) throws IOException;
+  }
+
+  /**
+   * Запись содержимого записи кэша
+   */
+  @FunctionalInterface
+  interface EntryWriter {
+    void write(DataOutput output) throws IOException;
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult;
+import com.github._1c_syntax.bsl.sonar.cache.FileAnalysisResultSerializer.EntryReader;
+import com.github._1c_syntax.bsl.sonar.cache.FileAnalysisResultSerializer.EntryWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш результатов анализа в локальном каталоге.
+ * <p>
+ * Не зависит от кэша сервера SonarQube и может переноситься между запусками CI в виде артефакта.
+ * Каждый файл анализа хранится в отдельной записи, которая читается целиком одним вызовом.
+ * Записи файлов, не участвовавших в запуске, и оставшиеся от прерванных запусков временные файлы
+ * удаляются по его завершении.
+ * Запись актуальна только при совпадении хэша содержимого файла и отпечатка настроек анализа.
+ * Подсветка и токены CPD хранятся в отдельных записях, которые не зависят от настроек анализа.
+ */
+@Slf4j
+public class LocalAnalysisCache implements AnalysisCache {
+
+  private static final int MAGIC = 0x42534C43; // BSLC
+  private static final int FORMAT_VERSION = 3;
+  private static final String ENTRY_SUFFIX = ".bin";
+  private static final String HIGHLIGHTING_ENTRY_SUFFIX = ".highlighting" + ENTRY_SUFFIX;
+  private static final String CPD_ENTRY_SUFFIX = ".cpd" + ENTRY_SUFFIX;
+  private static final String DURATIONS_FILE_NAME = "durations" + ENTRY_SUFFIX;
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  // временные файлы моложе этого возраста могут принадлежать параллельному запуску
+  private static final Duration STALE_TEMP_FILE_AGE = Duration.ofHours(1);
+
+  private final Path directory;
+  private final String fingerprint;
+  private final String highlightingFingerprint;
+  private final String cpdFingerprint = AnalysisFingerprint.cpd();
+  private final ContentHashes contentHashes;
+  private final Set<String> touchedFiles = ConcurrentHashMap.newKeySet();
+
+  public LocalAnalysisCache(Path directory,
+                            String fingerprint,
+                            String highlightingFingerprint,
+                            ContentHashes contentHashes) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.fingerprint = fingerprint;
+    this.highlightingFingerprint = highlightingFingerprint;
+    this.contentHashes = contentHashes;
+  }
+
+  @Override
+  public Optional<FileAnalysisResult> read(InputFile inputFile) {
+    return readEntry(inputFile, entryPath(inputFile, ENTRY_SUFFIX), fingerprint, FileAnalysisResultSerializer::read);
+  }
+
+  @Override
+  public void write(InputFile inputFile, FileAnalysisResult result) {
+    writeEntry(inputFile, entryPath(inputFile, ENTRY_SUFFIX), fingerprint,
+      output -> FileAnalysisResultSerializer.write(output, result));
+  }
+
+  @Override
+  public Optional<int[]> readHighlighting(InputFile inputFile) {
+    return readEntry(inputFile, entryPath(inputFile, HIGHLIGHTING_ENTRY_SUFFIX), highlightingFingerprint,
+      FileAnalysisResultSerializer::readHighlighting);
+  }
+
+  @Override
+  public void writeHighlighting(InputFile inputFile, int[] highlighting) {
+    writeEntry(inputFile, entryPath(inputFile, HIGHLIGHTING_ENTRY_SUFFIX), highlightingFingerprint,
+      output -> FileAnalysisResultSerializer.writeHighlighting(output, highlighting));
+  }
+
+  @Override
+  public Optional<CpdTokenStream> readCpdTokens(InputFile inputFile) {
+    return readEntry(inputFile, entryPath(inputFile, CPD_ENTRY_SUFFIX), cpdFingerprint,
+      FileAnalysisResultSerializer::readCpdTokens);
+  }
+
+  @Override
+  public void writeCpdTokens(InputFile inputFile, CpdTokenStream cpdTokens) {
+    writeEntry(inputFile, entryPath(inputFile, CPD_ENTRY_SUFFIX), cpdFingerprint,
+      output -> FileAnalysisResultSerializer.writeCpdTokens(output, cpdTokens));
+  }
+
+  @Override
+  public Map<String, Long> readDurations() {
+    var durationsFile = directory.resolve(DURATIONS_FILE_NAME);
+    if (!Files.isRegularFile(durationsFile)) {
+      return Collections.emptyMap();
+    }
+
+    try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(durationsFile)))) {
+      if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+        return Collections.emptyMap();
+      }
+      return FileAnalysisResultSerializer.readDurations(input);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Can't read analysis durations from {}", durationsFile, e);
+      return Collections.emptyMap();
+    }
+  }
+
+  @Override
+  public void writeDurations(Map<String, Long> durations) {
+    var durationsFile = directory.resolve(DURATIONS_FILE_NAME);
+    try {
+      replaceFile(durationsFile, (DataOutput output) -> {
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        FileAnalysisResultSerializer.writeDurations(output, durations);
+      });
+    } catch (IOException e) {
+      LOGGER.warn("Can't write analysis durations to {}", durationsFile, e);
+    }
+  }
+
+  @Override
+  public void removeStaleEntries() {
+    try (var entries = Files.list(directory)) {
+      var staleTempFileTime = System.currentTimeMillis() - STALE_TEMP_FILE_AGE.toMillis();
+      entries
+        .filter((Path entry) -> isFileEntry(entry)
+          ? !touchedFiles.contains(fileKeyHash(entry))
+          : isStaleTempFile(entry, staleTempFileTime))
+        .forEach(LocalAnalysisCache::deleteEntry);
+    } catch (IOException e) {
+      LOGGER.warn("Can't clean up local analysis cache {}", directory, e);
+    }
+  }
+
+  private <T> Optional<T> readEntry(
+    InputFile inputFile,
+    Path entry,
+    String entryFingerprint,
+    EntryReader<T> reader
+  ) {
+    var contentHash = contentHashes.get(inputFile);
+    if (contentHash == null || !Files.isRegularFile(entry)) {
+      return Optional.empty();
+    }
+
+    try {
+      // записи невелики: чтение целиком дешевле отображения в память и не блокирует замену записи на Windows
+      var input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(entry)));
+      if (input.readInt() != MAGIC
+        || input.readInt() != FORMAT_VERSION
+        || !entryFingerprint.equals(input.readUTF())
+        || !contentHash.equals(input.readUTF())) {
+        return Optional.empty();
+      }
+      return Optional.of(reader.read(input));
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Can't read local analysis cache entry {} for file {}", entry, inputFile, e);
+      return Optional.empty();
+    }
+  }
+
+  private void writeEntry(
+    InputFile inputFile,
+    Path entry,
+    String entryFingerprint,
+    EntryWriter writer
+  ) {
+    var contentHash = contentHashes.get(inputFile);
+    if (contentHash == null) {
+      return;
+    }
+
+    try {
+      replaceFile(entry, (DataOutput output) -> {
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(entryFingerprint);
+        output.writeUTF(contentHash);
+        writer.write(output);
+      });
+    } catch (IOException e) {
+      LOGGER.warn("Can't write local analysis cache entry {} for file {}", entry, inputFile, e);
+    }
+  }
+
+  /**
+   * Заменяет файл целиком через временный файл, чтобы параллельные и прерванные запуски
+   * не оставляли поврежденных записей. При ошибке временный файл удаляется.
+   */
+  private void replaceFile(Path target, EntryWriter writer) throws IOException {
+    var tempFile = Files.createTempFile(directory, target.getFileName().toString(), TEMP_FILE_SUFFIX);
+    try {
+      try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        writer.write(output);
+      }
+      Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      deleteEntry(tempFile);
+      throw e;
+    }
+  }
+
+  private Path entryPath(InputFile inputFile, String suffix) {
+    var keyHash = ContentHashes.sha256(inputFile.key());
+    touchedFiles.add(keyHash);
+    return directory.resolve(keyHash + suffix);
+  }
+
+  private static boolean isFileEntry(Path entry) {
+    var fileName = entry.getFileName().toString();
+    return fileName.endsWith(ENTRY_SUFFIX) && !DURATIONS_FILE_NAME.equals(fileName) && Files.isRegularFile(entry);
+  }
+
+  private static boolean isStaleTempFile(Path entry, long staleTempFileTime) {
+    if (!entry.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)) {
+      return false;
+    }
+    try {
+      return Files.getLastModifiedTime(entry).toMillis() < staleTempFileTime;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static String fileKeyHash(Path entry) {
+    var fileName = entry.getFileName().toString();
+    return fileName.substring(0, fileName.indexOf('.'));
+  }
+
+  private static void deleteEntry(Path entry) {
+    try {
+      Files.deleteIfExists(entry);
+    } catch (IOException e) {
+      LOGGER.warn("Can't delete local analysis cache file {}", entry, e);
+    }
+  }
+}
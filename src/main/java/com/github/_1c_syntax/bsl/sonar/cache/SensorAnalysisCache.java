@@ -0,0 +1,201 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult;
+import com.github._1c_syntax.bsl.sonar.cache.FileAnalysisResultSerializer.EntryReader;
+import com.github._1c_syntax.bsl.sonar.cache.FileAnalysisResultSerializer.EntryWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Кэш результатов анализа, хранящийся на сервере SonarQube
+ * ({@link SensorContext#previousCache()} и {@link SensorContext#nextCache()}).
+ * <p>
+ * Запись кэша привязана к ключу файла и содержит хэш содержимого файла и отпечаток настроек анализа.
+ * Запись считается актуальной только при совпадении обоих значений. Подсветка и токены CPD хранятся
+ * в отдельных записях, которые не зависят от настроек анализа.
+ */
+@Slf4j
+public class SensorAnalysisCache implements AnalysisCache {
+
+  private static final String KEY_PREFIX = "communitybsl:core:";
+  private static final String HIGHLIGHTING_KEY_PREFIX = "communitybsl:highlighting:";
+  private static final String CPD_KEY_PREFIX = "communitybsl:cpd:";
+  private static final String DURATIONS_KEY = "communitybsl:durations";
+  private static final int FORMAT_VERSION = 3;
+
+  private final ReadCache previousCache;
+  private final WriteCache nextCache;
+  private final String fingerprint;
+  private final String highlightingFingerprint;
+  private final String cpdFingerprint = AnalysisFingerprint.cpd();
+  private final ContentHashes contentHashes;
+
+  public SensorAnalysisCache(SensorContext context,
+                             String fingerprint,
+                             String highlightingFingerprint,
+                             ContentHashes contentHashes) {
+    this.previousCache = context.previousCache();
+    this.nextCache = context.nextCache();
+    this.fingerprint = fingerprint;
+    this.highlightingFingerprint = highlightingFingerprint;
+    this.contentHashes = contentHashes;
+  }
+
+  @Override
+  public Optional<FileAnalysisResult> read(InputFile inputFile) {
+    return readEntry(inputFile, KEY_PREFIX, fingerprint, FileAnalysisResultSerializer::read);
+  }
+
+  @Override
+  public void write(InputFile inputFile, FileAnalysisResult result) {
+    writeEntry(inputFile, KEY_PREFIX, fingerprint,
+      output -> FileAnalysisResultSerializer.write(output, result));
+  }
+
+  @Override
+  public Optional<int[]> readHighlighting(InputFile inputFile) {
+    return readEntry(inputFile, HIGHLIGHTING_KEY_PREFIX, highlightingFingerprint,
+      FileAnalysisResultSerializer::readHighlighting);
+  }
+
+  @Override
+  public void writeHighlighting(InputFile inputFile, int[] highlighting) {
+    writeEntry(inputFile, HIGHLIGHTING_KEY_PREFIX, highlightingFingerprint,
+      output -> FileAnalysisResultSerializer.writeHighlighting(output, highlighting));
+  }
+
+  @Override
+  public Optional<CpdTokenStream> readCpdTokens(InputFile inputFile) {
+    return readEntry(inputFile, CPD_KEY_PREFIX, cpdFingerprint, FileAnalysisResultSerializer::readCpdTokens);
+  }
+
+  @Override
+  public void writeCpdTokens(InputFile inputFile, CpdTokenStream cpdTokens) {
+    writeEntry(inputFile, CPD_KEY_PREFIX, cpdFingerprint,
+      output -> FileAnalysisResultSerializer.writeCpdTokens(output, cpdTokens));
+  }
+
+  @Override
+  public Map<String, Long> readDurations() {
+    if (!previousCache.contains(DURATIONS_KEY)) {
+      return Collections.emptyMap();
+    }
+
+    try (var input = new DataInputStream(previousCache.read(DURATIONS_KEY))) {
+      if (input.readInt() != FORMAT_VERSION) {
+        return Collections.emptyMap();
+      }
+      return FileAnalysisResultSerializer.readDurations(input);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Can't read analysis durations from analysis cache", e);
+      return Collections.emptyMap();
+    }
+  }
+
+  @Override
+  public void writeDurations(Map<String, Long> durations) {
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new DataOutputStream(bytes)) {
+      output.writeInt(FORMAT_VERSION);
+      FileAnalysisResultSerializer.writeDurations(output, durations);
+    } catch (IOException e) {
+      LOGGER.warn("Can't write analysis durations to analysis cache", e);
+      return;
+    }
+
+    synchronized (nextCache) {
+      nextCache.write(DURATIONS_KEY, bytes.toByteArray());
+    }
+  }
+
+  private <T> Optional<T> readEntry(
+    InputFile inputFile,
+    String keyPrefix,
+    String entryFingerprint,
+    EntryReader<T> reader
+  ) {
+    var key = keyPrefix + inputFile.key();
+    var contentHash = contentHashes.get(inputFile);
+    if (contentHash == null || !previousCache.contains(key)) {
+      return Optional.empty();
+    }
+
+    try (var input = new DataInputStream(previousCache.read(key))) {
+      if (input.readInt() != FORMAT_VERSION
+        || !entryFingerprint.equals(input.readUTF())
+        || !contentHash.equals(input.readUTF())) {
+        return Optional.empty();
+      }
+
+      var value = reader.read(input);
+      synchronized (nextCache) {
+        nextCache.copyFromPrevious(key);
+      }
+      return Optional.of(value);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Can't read analysis cache entry {} for file {}", key, inputFile, e);
+      return Optional.empty();
+    }
+  }
+
+  private void writeEntry(
+    InputFile inputFile,
+    String keyPrefix,
+    String entryFingerprint,
+    EntryWriter writer
+  ) {
+    var contentHash = contentHashes.get(inputFile);
+    if (contentHash == null) {
+      return;
+    }
+
+    var key = keyPrefix + inputFile.key();
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new DataOutputStream(bytes)) {
+      output.writeInt(FORMAT_VERSION);
+      output.writeUTF(entryFingerprint);
+      output.writeUTF(contentHash);
+      writer.write(output);
+    } catch (IOException e) {
+      LOGGER.warn("Can't write analysis cache entry {} for file {}", key, inputFile, e);
+      return;
+    }
+
+    synchronized (nextCache) {
+      nextCache.write(key, bytes.toByteArray());
+    }
+  }
+}
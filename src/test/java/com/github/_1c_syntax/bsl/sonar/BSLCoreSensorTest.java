@@ -52,6 +52,7 @@ class BSLCoreSensorTest {
   private static final String BASE_PATH = "src/test/resources/examples";
   private static final File BASE_DIR = new File(BASE_PATH).getAbsoluteFile();
   private static final String FILE_NAME = "src/test.bsl";
+  private static final String TEST_FILE_NAME = "test/test.bsl";
   private static final Version SONAR_VERSION = Version.create(7, 9);
 
   @Test
@@ -234,6 +235,127 @@ class BSLCoreSensorTest {
       .isEmpty();
   }
 
+  @Test
+  void testHighlightingSkipPolicy() {
+    var fileLinesContext = mock(FileLinesContext.class);
+    var fileLinesContextFactory = mock(FileLinesContextFactory.class);
+    when(fileLinesContextFactory.createFor(any(InputFile.class))).thenReturn(fileLinesContext);
+
+    var componentKey = "moduleKey:" + FILE_NAME;
+
+    var context = createSensorContext();
+    new BSLCoreSensor(context, fileLinesContextFactory).execute(context);
+    assertThat(context.highlightingTypeAt(componentKey, 1, 0)).isNotEmpty();
+
+    var excludedContext = createSensorContext();
+    excludedContext.settings().setProperty(BSLCommunityProperties.HIGHLIGHTING_EXCLUSIONS_KEY, FILE_NAME);
+    new BSLCoreSensor(excludedContext, fileLinesContextFactory).execute(excludedContext);
+    assertThat(excludedContext.highlightingTypeAt(componentKey, 1, 0)).isEmpty();
+    assertThat(excludedContext.cpdTokens(componentKey)).isNotEmpty();
+
+    var largeFileContext = createSensorContext();
+    largeFileContext.settings().setProperty(BSLCommunityProperties.HIGHLIGHTING_MAX_LINES_KEY, 1);
+    new BSLCoreSensor(largeFileContext, fileLinesContextFactory).execute(largeFileContext);
+    assertThat(largeFileContext.highlightingTypeAt(componentKey, 1, 0)).isEmpty();
+  }
+
+  @Test
+  void testIncrementalAnalysis() {
+    var diagnosticName = "OneStatementPerLine";
+    var ruleKey = RuleKey.of(BSLLanguageServerRuleDefinition.REPOSITORY_KEY, diagnosticName);
+
+    var fileLinesContext = mock(FileLinesContext.class);
+    var fileLinesContextFactory = mock(FileLinesContextFactory.class);
+    when(fileLinesContextFactory.createFor(any(InputFile.class))).thenReturn(fileLinesContext);
+
+    var componentKey = "moduleKey:" + FILE_NAME;
+    var resultKey = "communitybsl:core:" + componentKey;
+    var highlightingKey = "communitybsl:highlighting:" + componentKey;
+    var cpdKey = "communitybsl:cpd:" + componentKey;
+
+    // first run fills the cache
+    var cache = new InMemoryCache();
+    var context = createIncrementalSensorContext(cache);
+    setActiveRules(context, diagnosticName, ruleKey);
+    new BSLCoreSensor(context, fileLinesContextFactory).execute(context);
+
+    assertThat(cache.written()).containsKeys(resultKey, highlightingKey, cpdKey);
+
+    // second run restores results from the cache
+    var nextCache = cache.next();
+    var cachedContext = createIncrementalSensorContext(nextCache);
+    setActiveRules(cachedContext, diagnosticName, ruleKey);
+    new BSLCoreSensor(cachedContext, fileLinesContextFactory).execute(cachedContext);
+
+    assertThat(nextCache.written()).containsOnlyKeys(cache.written().keySet());
+    assertThat(cachedContext.allIssues()).hasSameSizeAs(context.allIssues());
+    assertThat(cachedContext.cpdTokens(componentKey)).hasSameSizeAs(context.cpdTokens(componentKey));
+    assertThat(cachedContext.measure(componentKey, CoreMetrics.COMPLEXITY).value())
+      .isEqualTo(context.measure(componentKey, CoreMetrics.COMPLEXITY).value());
+    assertThat(cachedContext.highlightingTypeAt(componentKey, 1, 0))
+      .isEqualTo(context.highlightingTypeAt(componentKey, 1, 0));
+
+    // changed settings invalidate the cache
+    var otherCache = cache.next();
+    var otherContext = createIncrementalSensorContext(otherCache);
+    setActiveRules(otherContext, diagnosticName, ruleKey);
+    otherContext.settings().setProperty(
+      BSLCommunityProperties.LANG_SERVER_DIAGNOSTIC_LANGUAGE_KEY, Language.EN.getLanguageCode());
+    new BSLCoreSensor(otherContext, fileLinesContextFactory).execute(otherContext);
+
+    assertThat(otherCache.written().get(resultKey)).isNotEqualTo(cache.written().get(resultKey));
+    // подсветка и токены CPD не зависят от настроек и восстанавливаются из кэша
+    assertThat(otherCache.written().get(highlightingKey)).isEqualTo(cache.written().get(highlightingKey));
+    assertThat(otherCache.written().get(cpdKey)).isEqualTo(cache.written().get(cpdKey));
+    assertThat(otherContext.cpdTokens(componentKey)).hasSameSizeAs(context.cpdTokens(componentKey));
+    assertThat(otherContext.highlightingTypeAt(componentKey, 1, 0))
+      .isEqualTo(context.highlightingTypeAt(componentKey, 1, 0));
+  }
+
+  @Test
+  void testSourceDirsConcurrency() {
+    var diagnosticName = "OneStatementPerLine";
+    var ruleKey = RuleKey.of(BSLLanguageServerRuleDefinition.REPOSITORY_KEY, diagnosticName);
+
+    var fileLinesContext = mock(FileLinesContext.class);
+    var fileLinesContextFactory = mock(FileLinesContextFactory.class);
+    when(fileLinesContextFactory.createFor(any(InputFile.class))).thenReturn(fileLinesContext);
+
+    var sourceComponentKey = "moduleKey:" + FILE_NAME;
+    var testComponentKey = "moduleKey:" + TEST_FILE_NAME;
+
+    // каталоги по очереди в общем контексте
+    var context = createSensorContext();
+    context.fileSystem().add(Tools.inputFileBSL(TEST_FILE_NAME, BASE_DIR));
+    setActiveRules(context, diagnosticName, ruleKey);
+    new BSLCoreSensor(context, fileLinesContextFactory).execute(context);
+
+    // каталоги одновременно в изолированных контекстах
+    var concurrentContext = createSensorContext();
+    concurrentContext.fileSystem().add(Tools.inputFileBSL(TEST_FILE_NAME, BASE_DIR));
+    concurrentContext.settings().setProperty(BSLCommunityProperties.SOURCE_DIRS_CONCURRENCY_KEY, 2);
+    setActiveRules(concurrentContext, diagnosticName, ruleKey);
+    new BSLCoreSensor(concurrentContext, fileLinesContextFactory).execute(concurrentContext);
+
+    assertThat(concurrentContext.isCancelled()).isFalse();
+    for (var componentKey : new String[]{sourceComponentKey, testComponentKey}) {
+      assertThat(concurrentContext.measure(componentKey, CoreMetrics.COMPLEXITY)).isNotNull();
+      assertThat(concurrentContext.measure(componentKey, CoreMetrics.COMPLEXITY).value())
+        .isEqualTo(context.measure(componentKey, CoreMetrics.COMPLEXITY).value());
+      assertThat(concurrentContext.cpdTokens(componentKey)).hasSameSizeAs(context.cpdTokens(componentKey));
+    }
+    assertThat(concurrentContext.allIssues()).hasSameSizeAs(context.allIssues());
+  }
+
+  private SensorContextTester createIncrementalSensorContext(InMemoryCache cache) {
+    var context = createSensorContext();
+    context.settings().setProperty(BSLCommunityProperties.INCREMENTAL_ANALYSIS_ENABLED_KEY, true);
+    context.setCacheEnabled(true);
+    context.setPreviousCache(cache);
+    context.setNextCache(cache);
+    return context;
+  }
+
   private void setActiveRules(SensorContextTester context, String diagnosticName, RuleKey ruleKey) {
     var activeRules = new ActiveRulesBuilder()
       .addRule(new NewActiveRule.Builder()
@@ -133,6 +133,35 @@ class BSLHighlighterTest {
 
   }
 
+  @Test
+  void testEncodedHighlightingReplay() {
+    // given
+    var fileName = "highlight.bsl";
+    var baseDirName = "src/test/resources/examples";
+    documentContext = BSLLSBinding.getServerContext().addDocument(Path.of(baseDirName, fileName).toUri());
+    BSLLSBinding.getServerContext().rebuildDocument(documentContext);
+    inputFile = Tools.inputFileBSL(fileName, Path.of(baseDirName).toFile());
+
+    var streamedContext = SensorContextTester.create(Path.of("."));
+    new BSLHighlighter(streamedContext).saveHighlighting(inputFile, documentContext);
+
+    // when
+    context = SensorContextTester.create(Path.of("."));
+    highlighter = new BSLHighlighter(context);
+    var encoded = highlighter.encodeHighlighting(documentContext);
+    highlighter.saveHighlighting(inputFile, encoded);
+
+    // then
+    var componentKey = "moduleKey:" + fileName;
+    for (var line = 1; line <= inputFile.lines(); line++) {
+      for (var character = 0; character < inputFile.selectLine(line).end().lineOffset(); character++) {
+        assertThat(context.highlightingTypeAt(componentKey, line, character))
+          .as("Position %d:%d", line, character)
+          .isEqualTo(streamedContext.highlightingTypeAt(componentKey, line, character));
+      }
+    }
+  }
+
   @ParameterizedTest(name = "{0}")
   @ValueSource(strings = {
     // Tab-indented query: ensures tabs producing position differences do not crash highlighting.
@@ -0,0 +1,59 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CpdTokenStreamTest {
+
+  @Test
+  void testRoundTrip() {
+    // given
+    var cpdTokens = new CpdTokenStream.Builder()
+      .add(1, 0, 4, "Если")
+      .add(1, 5, 6, "А")
+      .add(1, 7, 8, "=")
+      .add(4, 2, 3, "А")
+      .build();
+
+    // when
+    List<String> restored = new ArrayList<>();
+    cpdTokens.forEach((line, startChar, endChar, image) ->
+      restored.add(line + ":" + startChar + "-" + endChar + " " + image));
+
+    // then
+    assertThat(restored).containsExactly("1:0-4 Если", "1:5-6 А", "1:7-8 =", "4:2-3 А");
+    assertThat(cpdTokens.size()).isEqualTo(4);
+    // одинаковые тексты токенов хранятся один раз
+    assertThat(cpdTokens.images()).containsExactly("Если", "А", "=");
+  }
+
+  @Test
+  void testEmpty() {
+    assertThat(new CpdTokenStream.Builder().build().size()).isZero();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HighlightingBufferTest {
+
+  @Test
+  void testSortAndDeduplicate() {
+    // given
+    var buffer = new HighlightingBuffer();
+    buffer.add(2, 0, 5, TypeOfText.KEYWORD);
+    buffer.add(1, 10, 15, TypeOfText.STRING);
+    buffer.add(1, 0, 3, TypeOfText.COMMENT);
+    buffer.add(2, 0, 5, TypeOfText.KEYWORD);
+
+    // when
+    var ranges = activeRanges(buffer);
+
+    // then
+    assertThat(ranges).containsExactly(
+      new HighlightRange(1, 0, 3, TypeOfText.COMMENT),
+      new HighlightRange(1, 10, 15, TypeOfText.STRING),
+      new HighlightRange(2, 0, 5, TypeOfText.KEYWORD)
+    );
+  }
+
+  @Test
+  void testFirstDuplicateWins() {
+    var buffer = new HighlightingBuffer();
+    buffer.add(1, 0, 5, TypeOfText.STRING);
+    buffer.add(1, 6, 8, TypeOfText.KEYWORD);
+    buffer.add(1, 0, 5, TypeOfText.STRING);
+    buffer.deactivate(0);
+
+    assertThat(activeRanges(buffer)).containsExactly(new HighlightRange(1, 6, 8, TypeOfText.KEYWORD));
+  }
+
+  @Test
+  void testGrowAndClear() {
+    var buffer = new HighlightingBuffer();
+    for (var i = 5000; i > 0; i--) {
+      buffer.add(i, 0, 1, TypeOfText.KEYWORD);
+    }
+    buffer.deactivate(0);
+
+    var ranges = activeRanges(buffer);
+    assertThat(ranges).hasSize(4999);
+    assertThat(ranges.get(0).line()).isEqualTo(1);
+
+    buffer.clear();
+    assertThat(buffer.size()).isZero();
+    assertThat(activeRanges(buffer)).isEmpty();
+  }
+
+  private static List<HighlightRange> activeRanges(HighlightingBuffer buffer) {
+    List<HighlightRange> ranges = new ArrayList<>();
+    buffer.forEachActive((line, startChar, endChar, type) -> ranges.add(new HighlightRange(line, startChar, endChar, type)));
+    return ranges;
+  }
+
+  private record HighlightRange(int line, int startChar, int endChar, TypeOfText type) {
+  }
+}
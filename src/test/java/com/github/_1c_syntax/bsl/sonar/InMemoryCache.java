@@ -0,0 +1,92 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Кэш анализа в памяти для тестов
+ */
+public class InMemoryCache implements ReadCache, WriteCache {
+
+  private final Map<String, byte[]> previous;
+  private final Map<String, byte[]> written = new HashMap<>();
+
+  public InMemoryCache() {
+    this(Map.of());
+  }
+
+  private InMemoryCache(Map<String, byte[]> previous) {
+    this.previous = previous;
+  }
+
+  /**
+   * Кэш следующего запуска, содержащий записанные в текущем запуске данные
+   */
+  public InMemoryCache next() {
+    return new InMemoryCache(Map.copyOf(written));
+  }
+
+  public Map<String, byte[]> written() {
+    return written;
+  }
+
+  @Override
+  public InputStream read(String key) {
+    return new ByteArrayInputStream(previous.get(key));
+  }
+
+  @Override
+  public boolean contains(String key) {
+    return previous.containsKey(key);
+  }
+
+  @Override
+  public void write(String key, InputStream data) {
+    try {
+      write(key, data.readAllBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void write(String key, byte[] data) {
+    if (written.containsKey(key)) {
+      throw new IllegalArgumentException("Cache already contains key " + key);
+    }
+    written.put(key, data);
+  }
+
+  @Override
+  public void copyFromPrevious(String key) {
+    write(key, previous.get(key));
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InputFileIndexTest {
+
+  private static final File BASE_DIR = new File("src/test/resources/examples");
+
+  @Test
+  void testLookup() {
+    // given
+    var context = SensorContextTester.create(BASE_DIR);
+    var inputFile = Tools.inputFileBSL("src/test.bsl", BASE_DIR);
+    context.fileSystem().add(inputFile);
+    context.fileSystem().add(TestInputFileBuilder.create("moduleKey", "src/other.os")
+      .setModuleBaseDir(BASE_DIR.toPath())
+      .setLanguage("os")
+      .build());
+
+    // when
+    var index = new InputFileIndex(context.fileSystem());
+
+    // then
+    var absolutePath = new File(BASE_DIR, "src/test.bsl").getAbsoluteFile().toPath();
+    assertThat(index.inputFile(absolutePath)).isEqualTo(inputFile);
+    assertThat(index.inputFile(BASE_DIR.toPath().resolve("src/../src/test.bsl"))).isEqualTo(inputFile);
+    assertThat(index.inputFile(absolutePath.toUri().toString())).isEqualTo(inputFile);
+    assertThat(index.inputFile(new File(BASE_DIR, "src/other.os").getAbsoluteFile().toURI().toString())).isNull();
+    assertThat(index.inputFile(new File(BASE_DIR, "src/missing.bsl").getAbsoluteFile().toPath())).isNull();
+  }
+
+  @Test
+  void testSharedIndex() {
+    var context = SensorContextTester.create(BASE_DIR);
+    var otherContext = SensorContextTester.create(BASE_DIR);
+
+    assertThat(InputFileIndex.of(context.fileSystem()))
+      .isSameAs(InputFileIndex.of(context.fileSystem()))
+      .isNotSameAs(InputFileIndex.of(otherContext.fileSystem()));
+  }
+}
@@ -44,6 +44,9 @@ import java.io.File;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class IssuesLoaderTest {
 
@@ -140,6 +143,47 @@ class IssuesLoaderTest {
 
   }
 
+  @Test
+  void test_resolvedRulesReused() {
+    // given
+    var diagnosticName = "OneStatementPerLine";
+    var ruleKey = RuleKey.of(BSLLanguageServerRuleDefinition.REPOSITORY_KEY, diagnosticName);
+
+    var activeRules = spy(new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(ruleKey)
+        .setName(diagnosticName)
+        .build())
+      .build());
+    var context = SensorContextTester.create(BASE_DIR);
+    context.setActiveRules(activeRules);
+
+    var inputFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR);
+    var issuesLoader = new IssuesLoader(context);
+
+    // when
+    for (var i = 0; i < 2; i++) {
+      for (var code : List.of(diagnosticName, "Test")) {
+        var diagnostic = new Diagnostic();
+        diagnostic.setCode(code);
+        diagnostic.setSeverity(DiagnosticSeverity.Information);
+        diagnostic.setMessage("Check message");
+        diagnostic.setRange(new Range(new Position(0, 0), new Position(0, 1)));
+        issuesLoader.createIssue(inputFile, diagnostic);
+      }
+    }
+
+    // then
+    assertThat(context.allIssues())
+      .hasSize(2)
+      .allSatisfy(issue -> assertThat(issue.ruleKey()).isEqualTo(ruleKey));
+    assertThat(context.allExternalIssues())
+      .hasSize(2)
+      .allSatisfy(issue -> assertThat(((DefaultExternalIssue) issue).ruleId()).isEqualTo("Test"));
+    verify(activeRules, times(1)).find(ruleKey);
+    verify(activeRules, times(1)).find(RuleKey.of(BSLLanguageServerRuleDefinition.REPOSITORY_KEY, "Test"));
+  }
+
   @Test
   void test_createIssueOnProject() {
     var issueSeverity = DiagnosticSeverity.Information;
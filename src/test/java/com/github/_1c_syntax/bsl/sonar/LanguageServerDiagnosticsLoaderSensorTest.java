@@ -23,6 +23,8 @@ package com.github._1c_syntax.bsl.sonar;
 
 import com.github._1c_syntax.bsl.sonar.language.BSLLanguageServerRuleDefinition;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
 import org.sonar.api.batch.rule.internal.NewActiveRule;
 import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
@@ -32,6 +34,11 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.Version;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -108,4 +115,75 @@ class LanguageServerDiagnosticsLoaderSensorTest {
     assertThat(context.isCancelled()).isFalse();
 
   }
+
+  @Test
+  void test_streamingReport(@TempDir Path tempDir) throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL("src/test.bsl", BASE_DIR);
+    var report = writeReport(tempDir.resolve("report.json"), inputFile);
+    var context = createContext(inputFile, report.toString());
+
+    // when
+    new LanguageServerDiagnosticsLoaderSensor(context).execute(context);
+
+    // then
+    assertThat(context.allIssues()).hasSize(3);
+  }
+
+  @Test
+  void test_parallelImport(@TempDir Path tempDir) throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL("src/test.bsl", BASE_DIR);
+    var reportPaths = new ArrayList<String>();
+    for (var i = 0; i < 4; i++) {
+      reportPaths.add(writeReport(tempDir.resolve("report" + i + ".json"), inputFile).toString());
+    }
+    var context = createContext(inputFile, String.join(",", reportPaths));
+    context.settings().setProperty("sonar.bsl.languageserver.reportThreads", 3);
+
+    // when
+    new LanguageServerDiagnosticsLoaderSensor(context).execute(context);
+
+    // then
+    assertThat(context.allIssues()).hasSize(12);
+  }
+
+  private static SensorContextTester createContext(InputFile inputFile, String reportPaths) {
+    var context = SensorContextTester.create(BASE_DIR);
+    context.settings().setProperty("sonar.bsl.languageserver.reportPaths", reportPaths);
+    context.fileSystem().add(inputFile);
+    context.setActiveRules(new ActiveRulesBuilder()
+      .addRule(new NewActiveRule.Builder()
+        .setRuleKey(RuleKey.of(BSLLanguageServerRuleDefinition.REPOSITORY_KEY, "OneStatementPerLine"))
+        .setName("OneStatementPerLine")
+        .build())
+      .build());
+    return context;
+  }
+
+  /**
+   * Отчет с тремя замечаниями по файлу в двух элементах fileinfos и посторонними полями вокруг них
+   */
+  private static Path writeReport(Path report, InputFile inputFile) throws IOException {
+    var filePath = inputFile.path().toAbsolutePath().toString().replace('\\', '/');
+    var diagnostic = """
+      {
+        "range": {"start": {"line": 0, "character": 0}, "end": {"line": 0, "character": 5}},
+        "severity": "Information",
+        "code": "OneStatementPerLine",
+        "source": "bsl-language-server",
+        "message": "Перенесите выражение на новую строку"
+      }""";
+    Files.writeString(report, """
+      {
+        "date": "2019-07-17 07:12:03",
+        "unknown": {"nested": [1, 2, {"fileinfos": []}]},
+        "fileinfos": [
+          {"path": "%1$s", "diagnostics": [%2$s, %2$s]},
+          {"path": "%1$s", "diagnostics": [%2$s]}
+        ],
+        "sourceDir": "."
+      }""".formatted(filePath, diagnostic), StandardCharsets.UTF_8);
+    return report;
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.internal.DefaultTextPointer;
+import org.sonar.api.batch.fs.internal.DefaultTextRange;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextRangeResolverTest {
+
+  private static final File BASE_DIR = new File("src/test/resources/examples");
+
+  @Test
+  void testTextRange() {
+    // given
+    var inputFile = Tools.inputFileBSL("src/ranges.bsl", BASE_DIR, "А = 1;\n\nБ = 22;");
+    var resolver = new TextRangeResolver();
+
+    // when
+    var valid = resolver.textRange(inputFile, range(0, 0, 0, 5), "Rule");
+    var clamped = resolver.textRange(inputFile, range(2, 2, 2, 40), "Rule");
+    var empty = resolver.textRange(inputFile, range(1, 0, 1, 25), "Rule");
+    var outside = resolver.textRange(inputFile, range(10, 0, 12, 3), "Rule");
+
+    // then
+    assertThat(valid).isEqualTo(textRange(1, 0, 1, 5));
+    assertThat(clamped).isEqualTo(textRange(3, 2, 3, 7));
+    assertThat(empty).isEqualTo(textRange(2, 0, 2, 0));
+    assertThat(outside).isEqualTo(textRange(3, 0, 3, 7));
+    assertThat(resolver.getAdjustedRanges()).isEqualTo(3);
+    resolver.logSummary();
+  }
+
+  @Test
+  void testEndOfFile() {
+    // given
+    var inputFile = Tools.inputFileBSL("src/ranges.bsl", BASE_DIR, "А = 1;\n\nБ = 22;");
+    var resolver = new TextRangeResolver();
+
+    // when
+    var toEnd = resolver.textRange(inputFile, range(2, 2, 3, 0), "Rule");
+    var wholeFile = resolver.textRange(inputFile, range(0, 0, 3, 0), "Rule");
+
+    // then
+    assertThat(toEnd).isEqualTo(textRange(3, 2, 3, 7));
+    assertThat(wholeFile).isEqualTo(textRange(1, 0, 3, 7));
+    assertThat(resolver.getAdjustedRanges()).isZero();
+  }
+
+  private static Range range(int startLine, int startChar, int endLine, int endChar) {
+    return new Range(new Position(startLine, startChar), new Position(endLine, endChar));
+  }
+
+  private static DefaultTextRange textRange(int startLine, int startChar, int endLine, int endChar) {
+    return new DefaultTextRange(
+      new DefaultTextPointer(startLine, startChar),
+      new DefaultTextPointer(endLine, endChar)
+    );
+  }
+}
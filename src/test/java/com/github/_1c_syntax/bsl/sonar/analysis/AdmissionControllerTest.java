@@ -0,0 +1,112 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.github._1c_syntax.bsl.sonar.Tools;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class AdmissionControllerTest {
+
+  private static final File BASE_DIR = new File("src/test/resources/examples").getAbsoluteFile();
+
+  @Test
+  void testEstimate() {
+    var smallFile = Tools.inputFileBSL("small.bsl", BASE_DIR, "А = 1;");
+    var largeFile = Tools.inputFileBSL("large.bsl", BASE_DIR, "А = 1;\n".repeat(1000));
+
+    assertThat(AdmissionController.estimateBytes(largeFile))
+      .isEqualTo(largeFile.lines() * AdmissionController.ESTIMATED_BYTES_PER_LINE)
+      .isGreaterThan(AdmissionController.estimateBytes(smallFile));
+    assertThat(AdmissionController.budgetBytes(10)).isEqualTo(10L * 1024 * 1024);
+    assertThat(AdmissionController.budgetBytes(0)).isZero();
+  }
+
+  @Test
+  void testLargeFileIsParsedAlone() throws InterruptedException {
+    // given
+    var controller = new AdmissionController(1024L * 1024);
+    var largeFile = Tools.inputFileBSL("large.bsl", BASE_DIR, "А = 1;\n".repeat(1000));
+    var smallFile = Tools.inputFileBSL("small.bsl", BASE_DIR, "А = 1;");
+    var smallFileAdmitted = new CountDownLatch(1);
+
+    // when
+    var largeAdmission = controller.admit(largeFile);
+    var thread = new Thread(() -> {
+      try (var admission = controller.admit(smallFile)) {
+        smallFileAdmitted.countDown();
+      }
+    });
+    thread.start();
+
+    // then
+    assertThat(smallFileAdmitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+    largeAdmission.close();
+    assertThat(smallFileAdmitted.await(5, TimeUnit.SECONDS)).isTrue();
+    thread.join();
+    assertThat(controller.getDelayedFiles()).isEqualTo(1);
+  }
+
+  @Test
+  void testFileAboveBudgetIsAdmittedAlone() {
+    var controller = new AdmissionController(1024L * 1024);
+    var largeFile = Tools.inputFileBSL("large.bsl", BASE_DIR, "А = 1;\n".repeat(1000));
+    assertThat(AdmissionController.estimateBytes(largeFile)).isGreaterThan(controller.getBudgetBytes());
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      for (var i = 0; i < 3; i++) {
+        try (var admission = controller.admit(largeFile)) {
+          assertThat(controller.getDelayedFiles()).isZero();
+        }
+      }
+    });
+  }
+
+  @Test
+  void testDisabledBudget() {
+    var controller = new AdmissionController(AdmissionController.budgetBytes(0));
+    var largeFile = Tools.inputFileBSL("large.bsl", BASE_DIR, "А = 1;\n".repeat(1000));
+
+    try (var first = controller.admit(largeFile); var second = controller.admit(largeFile)) {
+      assertThat(controller.getDelayedFiles()).isZero();
+      assertThat(controller.getBudgetBytes()).isZero();
+    }
+  }
+
+  @Test
+  void testSmallFilesAreParsedTogether() {
+    var controller = new AdmissionController(16L * 1024 * 1024);
+    var smallFile = Tools.inputFileBSL("small.bsl", BASE_DIR, "А = 1;");
+
+    try (var first = controller.admit(smallFile); var second = controller.admit(smallFile)) {
+      assertThat(controller.getDelayedFiles()).isZero();
+    }
+  }
+}
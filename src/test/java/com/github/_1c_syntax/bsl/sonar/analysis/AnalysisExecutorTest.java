@@ -0,0 +1,140 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisExecutorTest {
+
+  @Test
+  void testExecute() {
+    // given
+    var counter = new AtomicInteger();
+    Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    // when
+    try (var executor = new AnalysisExecutor(2)) {
+      for (var i = 0; i < 100; i++) {
+        executor.submit(() -> {
+          threadNames.add(Thread.currentThread().getName());
+          counter.incrementAndGet();
+        });
+      }
+      executor.awaitCompletion();
+      executor.logStatistics();
+
+      // then
+      assertThat(counter).hasValue(100);
+      assertThat(executor.queueDepth()).isZero();
+    }
+    assertThat(threadNames)
+      .isNotEmpty()
+      .allMatch(name -> name.startsWith("bsl-analysis-"));
+  }
+
+  @Test
+  void testThreadNamePrefix() {
+    Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    try (var executor = new AnalysisExecutor(2, "bsl-report-worker-")) {
+      executor.submit(() -> threadNames.add(Thread.currentThread().getName()));
+      executor.awaitCompletion();
+    }
+
+    assertThat(threadNames).containsExactly("bsl-report-worker-1");
+  }
+
+  @Test
+  void testReuseAfterCompletion() {
+    var counter = new AtomicInteger();
+
+    try (var executor = new AnalysisExecutor(1)) {
+      executor.submit(counter::incrementAndGet);
+      executor.awaitCompletion();
+      executor.submit(counter::incrementAndGet);
+      executor.awaitCompletion();
+    }
+
+    assertThat(counter).hasValue(2);
+  }
+
+  @Test
+  void testFailure() {
+    try (var executor = new AnalysisExecutor(2)) {
+      executor.submit(() -> {
+        throw new IllegalArgumentException("test");
+      });
+
+      assertThatThrownBy(executor::awaitCompletion)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("test");
+    }
+  }
+
+  @Test
+  void testTaskGroups() throws InterruptedException {
+    // given
+    var blocker = new CountDownLatch(1);
+    var fastCounter = new AtomicInteger();
+
+    try (var executor = new AnalysisExecutor(2)) {
+      var slowGroup = executor.newTaskGroup();
+      var fastGroup = executor.newTaskGroup();
+
+      // when
+      slowGroup.submit(() -> {
+        try {
+          blocker.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      fastGroup.submit(fastCounter::incrementAndGet);
+      fastGroup.submit(() -> {
+        throw new IllegalArgumentException("fast");
+      });
+
+      // then
+      assertThatThrownBy(fastGroup::awaitCompletion)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("fast");
+      assertThat(fastCounter).hasValue(1);
+
+      blocker.countDown();
+      slowGroup.awaitCompletion();
+    }
+  }
+
+  @Test
+  void testThreadsCount() {
+    assertThat(AnalysisExecutor.threadsCount(3)).isEqualTo(3);
+    assertThat(AnalysisExecutor.threadsCount(0)).isEqualTo(Runtime.getRuntime().availableProcessors());
+  }
+}
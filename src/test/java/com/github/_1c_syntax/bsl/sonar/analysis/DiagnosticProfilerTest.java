@@ -0,0 +1,98 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.github._1c_syntax.bsl.languageserver.context.DocumentContext;
+import com.github._1c_syntax.bsl.languageserver.diagnostics.BSLDiagnostic;
+import com.github._1c_syntax.bsl.languageserver.diagnostics.metadata.DiagnosticCode;
+import com.github._1c_syntax.bsl.languageserver.diagnostics.metadata.DiagnosticInfo;
+import org.eclipse.lsp4j.Diagnostic;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DiagnosticProfilerTest {
+
+  @Test
+  void testReport() {
+    // given
+    var profiler = new DiagnosticProfiler();
+
+    // when
+    profiler.record("Cheap", "file1.bsl", TimeUnit.MILLISECONDS.toNanos(1), 0);
+    profiler.record("Expensive", "file1.bsl", TimeUnit.MILLISECONDS.toNanos(10), 1);
+    profiler.record("Expensive", "file2.bsl", TimeUnit.MILLISECONDS.toNanos(30), 2);
+    profiler.logSummary();
+
+    // then
+    var report = profiler.report();
+    assertThat(report)
+      .extracting(DiagnosticProfiler.DiagnosticReport::diagnostic)
+      .containsExactly("Expensive", "Cheap");
+
+    var expensive = report.get(0);
+    assertThat(expensive.calls()).isEqualTo(2);
+    assertThat(expensive.totalMs()).isEqualTo(40);
+    assertThat(expensive.issues()).isEqualTo(3);
+    assertThat(expensive.slowestFile()).isEqualTo("file2.bsl");
+    assertThat(expensive.slowestFileMs()).isEqualTo(30);
+  }
+
+  @Test
+  void testProxy() {
+    // given
+    var profiler = new DiagnosticProfiler();
+
+    var code = mock(DiagnosticCode.class);
+    when(code.getStringValue()).thenReturn("Test");
+    var info = mock(DiagnosticInfo.class);
+    when(info.getCode()).thenReturn(code);
+    var documentContext = mock(DocumentContext.class);
+    when(documentContext.getUri()).thenReturn(URI.create("file:///test.bsl"));
+
+    var diagnostic = mock(BSLDiagnostic.class);
+    when(diagnostic.getInfo()).thenReturn(info);
+    when(diagnostic.getDiagnostics(documentContext)).thenReturn(List.of(new Diagnostic()));
+
+    // when
+    var proxy = (BSLDiagnostic) profiler.postProcessAfterInitialization(diagnostic, "test");
+    var diagnostics = proxy.getDiagnostics(documentContext);
+
+    // then
+    assertThat(diagnostics).hasSize(1);
+    assertThat(profiler.report())
+      .singleElement()
+      .satisfies(report -> {
+        assertThat(report.diagnostic()).isEqualTo("Test");
+        assertThat(report.calls()).isEqualTo(1);
+        assertThat(report.issues()).isEqualTo(1);
+        assertThat(report.slowestFile()).isEqualTo("file:///test.bsl");
+      });
+    assertThat(profiler.postProcessAfterInitialization("not a diagnostic", "string")).isEqualTo("not a diagnostic");
+  }
+}
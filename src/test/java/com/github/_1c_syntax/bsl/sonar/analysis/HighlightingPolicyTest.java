@@ -0,0 +1,106 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.github._1c_syntax.bsl.sonar.Tools;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.FilePredicates;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HighlightingPolicyTest {
+
+  private static final File BASE_DIR = new File("src/test/resources/examples").getAbsoluteFile();
+
+  @Test
+  void testDefaultPolicyHighlightsEverything() {
+    var policy = new HighlightingPolicy(0, 0, new String[]{""}, predicates());
+    var largeFile = Tools.inputFileBSL("large.bsl", BASE_DIR, "А = 1;\n".repeat(1000));
+
+    assertThat(policy.isHighlighted(largeFile)).isTrue();
+    assertThat(policy.fingerprint()).isEqualTo(new HighlightingPolicy(0, 0, new String[0], predicates()).fingerprint());
+  }
+
+  @Test
+  void testMaxLines() {
+    var policy = new HighlightingPolicy(100, 0, new String[0], predicates());
+
+    assertThat(policy.isHighlighted(Tools.inputFileBSL("small.bsl", BASE_DIR, "А = 1;"))).isTrue();
+    assertThat(policy.isHighlighted(Tools.inputFileBSL("large.bsl", BASE_DIR, "А = 1;\n".repeat(1000))))
+      .isFalse();
+  }
+
+  @Test
+  void testMaxSize() {
+    var policy = new HighlightingPolicy(0, 1, new String[0], predicates());
+
+    assertThat(policy.isHighlighted(Tools.inputFileBSL("highlight.bsl", BASE_DIR))).isTrue();
+    assertThat(policy.isHighlighted(Tools.inputFileBSL("highlightCrmQuery.bsl", BASE_DIR))).isFalse();
+    assertThat(policy.fingerprint())
+      .isNotEqualTo(new HighlightingPolicy(0, 0, new String[0], predicates()).fingerprint());
+  }
+
+  @Test
+  void testSizeIsReadOnce(@TempDir Path tempDir) throws IOException {
+    var policy = new HighlightingPolicy(0, 1, new String[0], predicates());
+    Files.writeString(tempDir.resolve("module.bsl"), "А = 1;");
+    var inputFile = Tools.inputFileBSL("module.bsl", tempDir.toFile());
+    assertThat(policy.isHighlighted(inputFile)).isTrue();
+
+    Files.writeString(tempDir.resolve("module.bsl"), "А = 1;\n".repeat(1000));
+
+    assertThat(policy.isHighlighted(inputFile)).isTrue();
+  }
+
+  @Test
+  void testExclusions() {
+    var policy = new HighlightingPolicy(0, 0, new String[]{"**/generated/**", " highlight.bsl "}, predicates());
+
+    assertThat(policy.isHighlighted(Tools.inputFileBSL("generated/Module.bsl", BASE_DIR, "А = 1;"))).isFalse();
+    assertThat(policy.isHighlighted(Tools.inputFileBSL("highlight.bsl", BASE_DIR))).isFalse();
+    assertThat(policy.isHighlighted(Tools.inputFileBSL("src/Module.bsl", BASE_DIR, "А = 1;"))).isTrue();
+    assertThat(policy.fingerprint())
+      .isNotEqualTo(new HighlightingPolicy(0, 0, new String[0], predicates()).fingerprint());
+  }
+
+  @Test
+  void testSkippedStatistics() {
+    var policy = new HighlightingPolicy(0, 0, new String[]{"highlight.bsl"}, predicates());
+    var inputFile = Tools.inputFileBSL("highlight.bsl", BASE_DIR);
+
+    policy.recordSkipped(inputFile);
+
+    assertThat(policy.getSkippedFiles()).isEqualTo(1);
+    assertThat(policy.getSkippedBytes()).isEqualTo(new File(BASE_DIR, "highlight.bsl").length());
+  }
+
+  private static FilePredicates predicates() {
+    return SensorContextTester.create(BASE_DIR).fileSystem().predicates();
+  }
+}
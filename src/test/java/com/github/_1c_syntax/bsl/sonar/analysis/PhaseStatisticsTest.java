@@ -0,0 +1,82 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.github._1c_syntax.bsl.sonar.analysis.PhaseStatistics.Phase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhaseStatisticsTest {
+
+  @Test
+  void testReport() {
+    // given
+    var statistics = new PhaseStatistics();
+
+    // when
+    IntStream.range(0, 100).parallel().forEach(i ->
+      statistics.record(Phase.PARSE, "file" + i, TimeUnit.MILLISECONDS.toNanos(i))
+    );
+    var result = statistics.measure(Phase.DIAGNOSTICS, "file", () -> "done");
+    statistics.logSummary();
+
+    // then
+    assertThat(result).isEqualTo("done");
+
+    var report = statistics.report();
+    assertThat(report)
+      .extracting(PhaseStatistics.PhaseReport::phase)
+      .containsExactly(Phase.PARSE, Phase.DIAGNOSTICS);
+
+    var parse = report.get(0);
+    assertThat(parse.count()).isEqualTo(100);
+    assertThat(parse.totalMs()).isEqualTo(4950);
+    assertThat(parse.maxMs()).isEqualTo(99);
+    assertThat(parse.slowest())
+      .hasSize(PhaseStatistics.TOP_FILES_COUNT)
+      .extracting(PhaseStatistics.SlowSource::source)
+      .startsWith("file99", "file98")
+      .endsWith("file90");
+  }
+
+  @Test
+  void testWriteReport(@TempDir Path tempDir) throws IOException {
+    var statistics = new PhaseStatistics();
+    statistics.measure(Phase.SAVE_CPD, "file.bsl", () -> {
+    });
+
+    var reportPath = tempDir.resolve("report.json");
+    statistics.writeReport(reportPath);
+
+    assertThat(Files.readString(reportPath))
+      .contains("\"SAVE_CPD\"")
+      .contains("file.bsl");
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import com.github._1c_syntax.bsl.sonar.Tools;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkOrderingTest {
+
+  private static final File BASE_DIR = new File("src/test/resources/examples").getAbsoluteFile();
+
+  private final InputFile smallFile = Tools.inputFileBSL("small.bsl", BASE_DIR, "А = 1;");
+  private final InputFile mediumFile = Tools.inputFileBSL("medium.bsl", BASE_DIR, "А = 1;\n".repeat(100));
+  private final InputFile largeFile = Tools.inputFileBSL("large.bsl", BASE_DIR, "А = 1;\n".repeat(1000));
+
+  @Test
+  void testDefault() {
+    var inputFiles = List.of(smallFile, largeFile, mediumFile);
+
+    assertThat(WorkOrdering.DEFAULT.order(inputFiles, Collections.emptyMap()))
+      .containsExactly(smallFile, largeFile, mediumFile);
+  }
+
+  @Test
+  void testLargestFirstByLines() {
+    var inputFiles = List.of(smallFile, largeFile, mediumFile);
+
+    assertThat(WorkOrdering.LARGEST_FIRST.order(inputFiles, Collections.emptyMap()))
+      .containsExactly(largeFile, mediumFile, smallFile);
+  }
+
+  @Test
+  void testLargestFirstByDurations() {
+    // given
+    var inputFiles = List.of(smallFile, largeFile, mediumFile);
+    // small file was slow, medium file has no history and is estimated by average duration per line
+    var durations = Map.of(
+      smallFile.key(), 5000L,
+      largeFile.key(), 100L
+    );
+
+    // when
+    var ordered = WorkOrdering.LARGEST_FIRST.order(inputFiles, durations);
+
+    // then
+    assertThat(ordered).containsExactly(smallFile, mediumFile, largeFile);
+  }
+}
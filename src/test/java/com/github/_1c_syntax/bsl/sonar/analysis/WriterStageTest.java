@@ -0,0 +1,108 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriterStageTest {
+
+  @Test
+  void testSerialWrites() {
+    // given
+    var writer = new WriterStage("test-writer-", 1, 4);
+    List<Integer> written = new ArrayList<>();
+    Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    // when
+    try (var executor = new AnalysisExecutor(4)) {
+      for (var i = 0; i < 100; i++) {
+        var value = i;
+        executor.submit(() -> writer.submit(() -> {
+          threadNames.add(Thread.currentThread().getName());
+          written.add(value);
+        }));
+      }
+      executor.awaitCompletion();
+    }
+    writer.awaitCompletion();
+
+    // then
+    assertThat(written).hasSize(100);
+    assertThat(threadNames).containsExactly("test-writer-1");
+  }
+
+  @Test
+  void testWriterThreads() {
+    // given
+    var writer = new WriterStage("test-writer-", 2, 8);
+    var counter = new AtomicInteger();
+    Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    // when
+    for (var i = 0; i < 100; i++) {
+      writer.submit(() -> {
+        threadNames.add(Thread.currentThread().getName());
+        counter.incrementAndGet();
+      });
+    }
+    writer.awaitCompletion();
+
+    // then
+    assertThat(counter).hasValue(100);
+    assertThat(threadNames)
+      .isNotEmpty()
+      .allMatch(name -> name.startsWith("test-writer-"));
+  }
+
+  @Test
+  void testWritersCount() {
+    assertThat(WriterStage.writersCount(1)).isEqualTo(1);
+    assertThat(WriterStage.writersCount(32)).isEqualTo(8);
+  }
+
+  @Test
+  void testFailure() {
+    var writer = new WriterStage("test-writer-", 1, 4);
+    writer.submit(() -> {
+      throw new IllegalArgumentException("test");
+    });
+
+    assertThatThrownBy(writer::awaitCompletion)
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("test");
+
+    // после ошибки запись продолжает работать
+    var written = new ArrayList<Integer>();
+    writer.submit(() -> written.add(1));
+    writer.awaitCompletion();
+    assertThat(written).containsExactly(1);
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisFingerprintTest {
+
+  @TempDir
+  Path configurationRoot;
+
+  @Test
+  void testMetadataFingerprint() throws IOException {
+    // given
+    var configuration = Files.writeString(configurationRoot.resolve("Configuration.xml"), "<Configuration/>");
+    var module = Files.writeString(configurationRoot.resolve("Module.bsl"), "А = 1;");
+    var fingerprint = AnalysisFingerprint.metadata(List.of(configurationRoot));
+
+    // when
+    Files.writeString(module, "А = 2;");
+    var moduleChanged = AnalysisFingerprint.metadata(List.of(configurationRoot));
+    Files.writeString(configuration, "<Configuration><Name/></Configuration>");
+    var metadataChanged = AnalysisFingerprint.metadata(List.of(configurationRoot));
+
+    // then
+    assertThat(moduleChanged).isEqualTo(fingerprint);
+    assertThat(metadataChanged).isNotEqualTo(fingerprint);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult;
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult.Measures;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticRelatedInformation;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileAnalysisResultSerializerTest {
+
+  @Test
+  void testRoundTrip() throws IOException {
+    // given
+    var diagnostic = new Diagnostic(
+      new Range(new Position(1, 2), new Position(1, 10)),
+      "Сообщение",
+      DiagnosticSeverity.Warning,
+      "bsl-language-server",
+      "OneStatementPerLine"
+    );
+    diagnostic.setRelatedInformation(List.of(
+      new DiagnosticRelatedInformation(
+        new Location("file:///test.bsl", new Range(new Position(3, 0), new Position(3, 5))),
+        "+1"
+      )
+    ));
+    var diagnosticWithoutSeverity = new Diagnostic();
+    diagnosticWithoutSeverity.setRange(new Range(new Position(0, 0), new Position(0, 1)));
+    diagnosticWithoutSeverity.setMessage("Без важности");
+
+    var result = new FileAnalysisResult(
+      List.of(diagnostic, diagnosticWithoutSeverity),
+      new Measures(10, 5, 2, 3, 4, 1, new int[]{1, 2, 5})
+    );
+
+    // when
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new DataOutputStream(bytes)) {
+      FileAnalysisResultSerializer.write(output, result);
+    }
+    var restored = FileAnalysisResultSerializer.read(
+      new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+    );
+
+    // then
+    assertThat(restored.diagnostics()).containsExactly(diagnostic, diagnosticWithoutSeverity);
+    assertThat(restored.measures().ncloc()).isEqualTo(10);
+    assertThat(restored.measures().functions()).isEqualTo(2);
+    assertThat(restored.measures().nclocData()).containsExactly(1, 2, 5);
+  }
+
+  @Test
+  void testCpdTokensRoundTrip() throws IOException {
+    // given
+    var cpdTokens = new CpdTokenStream.Builder()
+      .add(1, 0, 4, "Если")
+      .add(1, 5, 6, "А")
+      .add(1, 7, 8, "=")
+      .add(3, 4, 5, "А")
+      .build();
+
+    // when
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new DataOutputStream(bytes)) {
+      FileAnalysisResultSerializer.writeCpdTokens(output, cpdTokens);
+    }
+    var restored = FileAnalysisResultSerializer.readCpdTokens(
+      new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+    );
+
+    // then
+    assertThat(restored.images()).containsExactly("Если", "А", "=");
+    assertThat(restored.tokens()).containsExactly(cpdTokens.tokens());
+  }
+
+  @Test
+  void testHighlightingRoundTrip() throws IOException {
+    // given
+    var highlighting = new int[]{1, 0, 4, 3, 0, 5, 127, 0, 1, -2, 300, 7, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    // when
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new DataOutputStream(bytes)) {
+      FileAnalysisResultSerializer.writeHighlighting(output, highlighting);
+    }
+    var restored = FileAnalysisResultSerializer.readHighlighting(
+      new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+    );
+
+    // then
+    assertThat(restored).containsExactly(highlighting);
+    // малые числа занимают по одному байту
+    assertThat(bytes.size()).isLessThan(highlighting.length * Integer.BYTES);
+  }
+}
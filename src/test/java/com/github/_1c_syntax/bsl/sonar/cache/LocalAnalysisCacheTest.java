@@ -0,0 +1,178 @@
+/*
+ * This file is a part of SonarQube 1C (BSL) Community Plugin.
+ *
+ * Copyright (c) 2018-2026
+ * Alexey Sosnoviy <labotamy@gmail.com>, Nikita Fedkin <nixel2007@gmail.com>
+ *
+ * SPDX-License-Identifier: LGPL-3.0-or-later
+ *
+ * SonarQube 1C (BSL) Community Plugin is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * SonarQube 1C (BSL) Community Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with SonarQube 1C (BSL) Community Plugin.
+ */
+package com.github._1c_syntax.bsl.sonar.cache;
+
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult;
+import com.github._1c_syntax.bsl.sonar.CpdTokenStream;
+import com.github._1c_syntax.bsl.sonar.FileAnalysisResult.Measures;
+import com.github._1c_syntax.bsl.sonar.Tools;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalAnalysisCacheTest {
+
+  private static final File BASE_DIR = new File("src/test/resources/examples").getAbsoluteFile();
+  private static final String FILE_NAME = "src/test.bsl";
+
+  @TempDir
+  Path cacheDir;
+
+  @Test
+  void testReadWrite() throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 1;");
+    var result = createResult();
+    var cache = new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes());
+
+    // when
+    assertThat(cache.read(inputFile)).isEmpty();
+    cache.write(inputFile, result);
+
+    // then
+    try (var entries = Files.list(cacheDir)) {
+      assertThat(entries).hasSize(1);
+    }
+    var restored = new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes()).read(inputFile);
+    assertThat(restored).isPresent();
+    assertThat(restored.get().measures().ncloc()).isEqualTo(result.measures().ncloc());
+    assertThat(restored.get().measures().nclocData()).containsExactly(1);
+  }
+
+  @Test
+  void testInvalidation() throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 1;");
+    new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes()).write(inputFile, createResult());
+
+    // then
+    var changedSettings = new LocalAnalysisCache(cacheDir, "other fingerprint", "highlighting", new ContentHashes());
+    assertThat(changedSettings.read(inputFile)).isEmpty();
+
+    var changedFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 2;");
+    var sameSettings = new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes());
+    assertThat(sameSettings.read(changedFile)).isEmpty();
+
+    // stale entry is replaced
+    sameSettings.write(changedFile, createResult());
+    assertThat(new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes()).read(changedFile)).isPresent();
+  }
+
+  @Test
+  void testHighlightingDoesNotDependOnSettings() throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 1;");
+    var highlighting = new int[]{1, 0, 1, 2, 0, 4, 1, 5};
+    new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes()).writeHighlighting(inputFile, highlighting);
+
+    // then
+    var changedSettings = new LocalAnalysisCache(cacheDir, "other fingerprint", "highlighting", new ContentHashes());
+    assertThat(changedSettings.read(inputFile)).isEmpty();
+    assertThat(changedSettings.readHighlighting(inputFile)).hasValueSatisfying(
+      restored -> assertThat(restored).containsExactly(highlighting));
+
+    var changedFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 2;");
+    assertThat(changedSettings.readHighlighting(changedFile)).isEmpty();
+  }
+
+  @Test
+  void testHighlightingInvalidation() throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 1;");
+    var cache = new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes());
+    cache.write(inputFile, createResult());
+    cache.writeHighlighting(inputFile, new int[]{1, 0, 1, 2, 0, 4, 1, 5});
+
+    // then
+    var changedPolicy = new LocalAnalysisCache(cacheDir, "fingerprint", "other highlighting", new ContentHashes());
+    assertThat(changedPolicy.readHighlighting(inputFile)).isEmpty();
+    assertThat(changedPolicy.read(inputFile)).isPresent();
+  }
+
+  @Test
+  void testCpdTokensDoNotDependOnSettings() throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 1;");
+    var cpdTokens = new CpdTokenStream.Builder()
+      .add(1, 0, 1, "А")
+      .add(1, 2, 3, "=")
+      .build();
+    new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes()).writeCpdTokens(inputFile, cpdTokens);
+
+    // then
+    var changedSettings = new LocalAnalysisCache(cacheDir, "other fingerprint", "highlighting", new ContentHashes());
+    assertThat(changedSettings.readCpdTokens(inputFile)).hasValueSatisfying(
+      restored -> assertThat(restored.tokens()).containsExactly(cpdTokens.tokens()));
+
+    var changedFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 2;");
+    assertThat(changedSettings.readCpdTokens(changedFile)).isEmpty();
+  }
+
+  @Test
+  void testRemoveStaleEntries() throws IOException {
+    // given
+    var inputFile = Tools.inputFileBSL(FILE_NAME, BASE_DIR, "А = 1;");
+    var removedFile = Tools.inputFileBSL("src/removed.bsl", BASE_DIR, "Б = 1;");
+    var previousRun = new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes());
+    previousRun.write(inputFile, createResult());
+    previousRun.write(removedFile, createResult());
+    previousRun.writeHighlighting(removedFile, new int[]{1, 0, 1, 2, 0, 4, 1, 5});
+    previousRun.writeDurations(Map.of(inputFile.key(), 10L));
+    var interruptedWrite = Files.createFile(cacheDir.resolve("interrupted.bin.tmp"));
+    Files.setLastModifiedTime(interruptedWrite, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+    var concurrentWrite = Files.createFile(cacheDir.resolve("concurrent.bin.tmp"));
+
+    // when
+    var currentRun = new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes());
+    assertThat(currentRun.read(inputFile)).isPresent();
+    currentRun.removeStaleEntries();
+
+    // then
+    try (var entries = Files.list(cacheDir)) {
+      assertThat(entries).hasSize(3);
+    }
+    assertThat(interruptedWrite).doesNotExist();
+    assertThat(concurrentWrite).exists();
+    var nextRun = new LocalAnalysisCache(cacheDir, "fingerprint", "highlighting", new ContentHashes());
+    assertThat(nextRun.read(inputFile)).isPresent();
+    assertThat(nextRun.read(removedFile)).isEmpty();
+    assertThat(nextRun.readDurations()).containsEntry(inputFile.key(), 10L);
+  }
+
+  private static FileAnalysisResult createResult() {
+    return new FileAnalysisResult(
+      List.of(),
+      new Measures(1, 1, 0, 0, 0, 0, new int[]{1})
+    );
+  }
+}